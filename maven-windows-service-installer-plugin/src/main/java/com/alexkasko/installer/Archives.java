@@ -0,0 +1,214 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Zip archiving helpers used to pack installer
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class Archives {
+
+    private Archives() {
+    }
+
+    /**
+     * Lists all files in directory tree
+     *
+     * @param dir root directory
+     * @return files sorted by path relative to root, '/' is used as separator
+     */
+    public static SortedMap<String, File> listTree(File dir) {
+        SortedMap<String, File> res = new TreeMap<String, File>();
+        collect(dir, "", res);
+        return res;
+    }
+
+    /**
+     * Writes single file into zip
+     *
+     * @param file file to write
+     * @param name entry name
+     * @param zip zip stream
+     * @throws IOException on IO error
+     */
+    public static void zipFile(File file, String name, ZipArchiveOutputStream zip) throws IOException {
+        ZipArchiveEntry entry = new ZipArchiveEntry(file, name);
+        zip.putArchiveEntry(entry);
+        FileUtils.copyFile(file, zip);
+        zip.closeArchiveEntry();
+    }
+
+    /**
+     * Writes all files of directory tree into zip
+     *
+     * @param dir root directory
+     * @param prefix entry names prefix, relative paths are appended to it after '/', may be empty
+     * @param zip zip stream
+     * @throws IOException on IO error
+     */
+    public static void zipTree(File dir, String prefix, ZipArchiveOutputStream zip) throws IOException {
+        zipTree(dir, prefix, zip, 1);
+    }
+
+    /**
+     * Writes all files of directory tree into zip, compressing them on multiple threads
+     * if parallelism is greater than one
+     *
+     * @param dir root directory
+     * @param prefix entry names prefix, relative paths are appended to it after '/', may be empty
+     * @param zip zip stream
+     * @param parallelism number of compressing threads
+     * @throws IOException on IO error
+     */
+    public static void zipTree(File dir, String prefix, ZipArchiveOutputStream zip, int parallelism) throws IOException {
+        zipTree(dir, prefix, zip, parallelism, CompressionPolicy.deflateAll(), new CompressionStats());
+    }
+
+    /**
+     * Writes all files of directory tree into zip storing or deflating them according to policy,
+     * compressing them on multiple threads if parallelism is greater than one
+     *
+     * @param dir root directory
+     * @param prefix entry names prefix, relative paths are appended to it after '/', may be empty
+     * @param zip zip stream
+     * @param parallelism number of compressing threads
+     * @param policy compression policy
+     * @param stats per-strategy counters to update
+     * @throws IOException on IO error
+     */
+    public static void zipTree(File dir, String prefix, ZipArchiveOutputStream zip, int parallelism,
+                               CompressionPolicy policy, CompressionStats stats) throws IOException {
+        SortedMap<String, File> named = new TreeMap<String, File>();
+        for(Map.Entry<String, File> en : listTree(dir).entrySet()) {
+            named.put(entryName(prefix, en.getKey()), en.getValue());
+        }
+        if(parallelism > 1) {
+            new ParallelZipWriter(parallelism, policy, stats).write(named, zip);
+        } else {
+            for(Map.Entry<String, File> en : named.entrySet()) {
+                zipFile(en.getValue(), en.getKey(), zip, policy.isStored(en.getKey()), policy.getLevel(), stats);
+            }
+        }
+    }
+
+    /**
+     * Writes file into zip stored or deflated with specified level
+     *
+     * @param file file to write
+     * @param name entry name
+     * @param zip zip stream
+     * @param stored whether to store file without compression
+     * @param level deflate level, ignored for stored file
+     * @param stats per-strategy counters to update
+     * @throws IOException on IO error
+     */
+    public static void zipFile(File file, String name, ZipArchiveOutputStream zip, boolean stored, int level,
+                               CompressionStats stats) throws IOException {
+        long start = System.nanoTime();
+        ZipArchiveEntry entry = new ZipArchiveEntry(file, name);
+        if(stored) {
+            // sizes and CRC are required up front for non-seekable output
+            entry.setMethod(ZipArchiveEntry.STORED);
+            entry.setSize(file.length());
+            entry.setCrc(FileUtils.checksumCRC32(file));
+        } else {
+            entry.setMethod(ZipArchiveEntry.DEFLATED);
+            zip.setLevel(level);
+        }
+        zip.putArchiveEntry(entry);
+        FileUtils.copyFile(file, zip);
+        zip.closeArchiveEntry();
+        stats.add(stored ? CompressionStats.STORED : CompressionStats.DEFLATE, entry.getSize(),
+                entry.getCompressedSize(), System.nanoTime() - start);
+    }
+
+    /**
+     * Copies all entries of existing zip into zip stream without recompression
+     *
+     * @param source zip file to copy entries from
+     * @param prefix prefix for copied entries names, appended with '/', may be empty
+     * @param zip zip stream
+     * @throws IOException on IO error
+     */
+    public static void copyRaw(File source, String prefix, ZipArchiveOutputStream zip) throws IOException {
+        ZipFile zf = null;
+        try {
+            zf = new ZipFile(source);
+            Enumeration<ZipArchiveEntry> entries = zf.getEntriesInPhysicalOrder();
+            while(entries.hasMoreElements()) {
+                ZipArchiveEntry en = entries.nextElement();
+                ZipArchiveEntry copy = new ZipArchiveEntry(entryName(prefix, en.getName()));
+                copy.setMethod(en.getMethod());
+                copy.setTime(en.getTime());
+                copy.setSize(en.getSize());
+                copy.setCompressedSize(en.getCompressedSize());
+                copy.setCrc(en.getCrc());
+                InputStream raw = zf.getRawInputStream(en);
+                try {
+                    zip.addRawArchiveEntry(copy, raw);
+                } finally {
+                    closeQuietly(raw);
+                }
+            }
+        } finally {
+            ZipFile.closeQuietly(zf);
+        }
+    }
+
+    /**
+     * Sums uncompressed sizes of file entries recorded in zip central directory
+     *
+     * @param zipFile zip file
+     * @return number of file entries and their total uncompressed size
+     * @throws IOException on IO error
+     */
+    public static long[] uncompressedSize(File zipFile) throws IOException {
+        long[] res = new long[2];
+        ZipFile zf = null;
+        try {
+            zf = new ZipFile(zipFile);
+            Enumeration<ZipArchiveEntry> entries = zf.getEntries();
+            while(entries.hasMoreElements()) {
+                ZipArchiveEntry en = entries.nextElement();
+                if(en.isDirectory()) continue;
+                res[0] += 1;
+                res[1] += Math.max(en.getSize(), 0);
+            }
+        } finally {
+            ZipFile.closeQuietly(zf);
+        }
+        return res;
+    }
+
+    private static String entryName(String prefix, String relative) {
+        return prefix.length() > 0 ? prefix + "/" + relative : relative;
+    }
+
+    private static void collect(File dir, String prefix, SortedMap<String, File> acc) {
+        File[] children = dir.listFiles();
+        if(null == children) return;
+        for(File fi : children) {
+            String rel = prefix + fi.getName();
+            if(fi.isDirectory()) {
+                collect(fi, rel + "/", acc);
+            } else {
+                acc.put(rel, fi);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.lang.UnhandledException;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.commons.io.FilenameUtils.getBaseName;
+import static org.apache.commons.io.FilenameUtils.getExtension;
+
+/**
+ * Maven plugin, creates izPack installers (and Unix dists if enabled) for multiple services
+ * in one execution. Each service is built with plugin settings overridden by its definition
+ * in its own staging directory. Work is shared between services: libraries, launcher and JRE
+ * are hard-linked into staging directories, compressed JRE is cached and copied into each
+ * installer without recompression, runtime image is linked with jlink only once.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ * @goal batch-installer
+ * @phase package
+ * @requiresDependencyResolution runtime
+ */
+public class BatchInstallerMojo extends InstallerMojo {
+    /**
+     * Services to build installers for
+     *
+     * @parameter
+     * @required
+     */
+    protected List<Service> services;
+    /**
+     * Base directory for per-service staging directories
+     *
+     * @parameter expression="${installer.batchDir}" default-value="${project.build.directory}/izpack-batch"
+     */
+    protected File batchDir;
+    /**
+     * Staging mode used for services instead of stagingMode, see stagingMode
+     *
+     * @parameter expression="${installer.batchStagingMode}" default-value="link"
+     */
+    protected String batchStagingMode;
+
+    /**
+     * Plugin entry point
+     *
+     * @throws MojoExecutionException
+     * @throws MojoFailureException
+     */
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        checkServices();
+        Map<Field, Object> saved = saveSettings();
+        File linkedJre = null;
+        String linkedJreKey = null;
+        try {
+            for(int i = 0; i < services.size(); i++) {
+                Service service = services.get(i);
+                getLog().info("Building service: [" + service.getId() + "] (" + (i + 1) + " of " + services.size() + ")");
+                restoreSettings(saved);
+                applyService(service);
+                if(null != linkedJre) {
+                    // runtime image of the first service is reused
+                    jlinkRuntime = false;
+                    jreDir = linkedJre;
+                    // keeps the same shared store path for the reused image
+                    sharedJreKey = linkedJreKey;
+                }
+                super.execute();
+                if(jlinkRuntime) {
+                    linkedJre = new File(izpackDir, "jre");
+                    linkedJreKey = sharedJreKey;
+                }
+            }
+        } finally {
+            restoreSettings(saved);
+        }
+    }
+
+    private void checkServices() throws MojoExecutionException {
+        if(null == services || services.isEmpty()) throw new MojoExecutionException("No services specified");
+        Set<String> ids = new HashSet<String>();
+        for(Service se : services) {
+            if(null == se.getId() || 0 == se.getId().trim().length()) throw new MojoExecutionException(
+                    "Service id must be specified");
+            if(!se.getId().matches("[A-Za-z0-9._-]+")) throw new MojoExecutionException(
+                    "Invalid service id: [" + se.getId() + "], only letters, digits, '.', '_' and '-' are allowed");
+            if(!ids.add(se.getId())) throw new MojoExecutionException("Duplicate service id: [" + se.getId() + "]");
+        }
+    }
+
+    private void applyService(Service service) {
+        // not null definition fields override settings with the same names
+        for(Field fi : Service.class.getDeclaredFields()) {
+            if(Modifier.isStatic(fi.getModifiers()) || "id".equals(fi.getName())) continue;
+            try {
+                fi.setAccessible(true);
+                Object value = fi.get(service);
+                if(null != value) SettingsMojo.class.getDeclaredField(fi.getName()).set(this, value);
+            } catch (NoSuchFieldException e) {
+                throw new UnhandledException(e);
+            } catch (IllegalAccessException e) {
+                throw new UnhandledException(e);
+            }
+        }
+        String id = service.getId();
+        File dir = new File(batchDir, id);
+        izpackDir = dir;
+        distDir = new File(dir, "dist");
+        buildOutputFile = new File(dir, "build.log");
+        izpackOutputFile = new File(dir, "install.jar");
+        buildManifestFile = new File(dir, "build-manifest.properties");
+        buildReportFile = new File(dir, "build-report.json");
+        installerOutputFile = withSuffix(installerOutputFile, id);
+        distOutputFile = withSuffix(distOutputFile, id);
+        releaseManifestFile = withSuffix(releaseManifestFile, id);
+        stagingMode = batchStagingMode;
+        useJreCache = true;
+    }
+
+    private static File withSuffix(File file, String suffix) {
+        String ext = getExtension(file.getName());
+        String name = getBaseName(file.getName()) + "-" + suffix + (ext.length() > 0 ? "." + ext : "");
+        return new File(file.getParentFile(), name);
+    }
+
+    private Map<Field, Object> saveSettings() {
+        Map<Field, Object> res = new HashMap<Field, Object>();
+        for(Field fi : SettingsMojo.class.getDeclaredFields()) {
+            if(Modifier.isStatic(fi.getModifiers())) continue;
+            try {
+                res.put(fi, fi.get(this));
+            } catch (IllegalAccessException e) {
+                throw new UnhandledException(e);
+            }
+        }
+        return res;
+    }
+
+    private void restoreSettings(Map<Field, Object> saved) {
+        for(Map.Entry<Field, Object> en : saved.entrySet()) {
+            try {
+                en.getKey().set(this, en.getValue());
+            } catch (IllegalAccessException e) {
+                throw new UnhandledException(e);
+            }
+        }
+    }
+}
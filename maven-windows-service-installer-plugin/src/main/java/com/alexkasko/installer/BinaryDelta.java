@@ -0,0 +1,143 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Computes binary delta between two versions of a file, delta is applied with
+ * {@code PatchApplier} from common library. Base file is split into blocks indexed by rolling
+ * checksum, target file is scanned for matching blocks, matches are extended byte by byte.
+ * Unchanged entries of rebuilt jars stay byte-identical, so jar deltas are usually small.
+ *
+ * Format: int magic 'WSID', byte version, long target length, then operations:
+ * byte 1 + long base offset + int length (copy from base), byte 2 + int length + bytes (literal data),
+ * byte 0 (end).
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class BinaryDelta {
+    static final int MAGIC = 0x57534944;
+    static final byte VERSION = 1;
+    static final byte END = 0;
+    static final byte COPY = 1;
+    static final byte DATA = 2;
+    private static final int BLOCK = 1024;
+    // candidates per checksum, protects from quadratic behaviour on repetitive data
+    private static final int MAX_CANDIDATES = 8;
+
+    private BinaryDelta() {
+    }
+
+    /**
+     * Writes delta
+     *
+     * @param base base file
+     * @param target target file
+     * @param out delta output, not closed
+     * @throws IOException on IO error
+     */
+    public static void write(File base, File target, OutputStream out) throws IOException {
+        byte[] src = FileUtils.readFileToByteArray(base);
+        byte[] dest = FileUtils.readFileToByteArray(target);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeLong(dest.length);
+        Map<Integer, int[]> index = index(src);
+        int literal = 0;
+        int pos = 0;
+        int sum = dest.length >= BLOCK ? checksum(dest, 0) : 0;
+        while(pos + BLOCK <= dest.length) {
+            int matched = -1;
+            int[] candidates = index.get(sum);
+            if(null != candidates) {
+                for(int block : candidates) {
+                    if(block < 0) break;
+                    if(equal(src, block * BLOCK, dest, pos, BLOCK)) {
+                        matched = block * BLOCK;
+                        break;
+                    }
+                }
+            }
+            if(matched >= 0) {
+                int len = BLOCK;
+                while(matched + len < src.length && pos + len < dest.length && src[matched + len] == dest[pos + len]) {
+                    len += 1;
+                }
+                writeData(data, dest, literal, pos);
+                data.writeByte(COPY);
+                data.writeLong(matched);
+                data.writeInt(len);
+                pos += len;
+                literal = pos;
+                if(pos + BLOCK <= dest.length) sum = checksum(dest, pos);
+            } else {
+                if(pos + BLOCK < dest.length) sum = roll(sum, dest[pos], dest[pos + BLOCK]);
+                pos += 1;
+            }
+        }
+        writeData(data, dest, literal, dest.length);
+        data.writeByte(END);
+        data.flush();
+    }
+
+    private static Map<Integer, int[]> index(byte[] src) {
+        Map<Integer, int[]> res = new HashMap<Integer, int[]>();
+        for(int block = 0; (block + 1) * BLOCK <= src.length; block++) {
+            Integer sum = checksum(src, block * BLOCK);
+            int[] existed = res.get(sum);
+            if(null == existed) {
+                existed = new int[MAX_CANDIDATES];
+                Arrays.fill(existed, -1);
+                res.put(sum, existed);
+            }
+            for(int i = 0; i < existed.length; i++) {
+                if(existed[i] < 0) {
+                    existed[i] = block;
+                    break;
+                }
+            }
+        }
+        return res;
+    }
+
+    private static void writeData(DataOutputStream data, byte[] dest, int from, int to) throws IOException {
+        if(to <= from) return;
+        data.writeByte(DATA);
+        data.writeInt(to - from);
+        data.write(dest, from, to - from);
+    }
+
+    private static boolean equal(byte[] a, int aoff, byte[] b, int boff, int len) {
+        for(int i = 0; i < len; i++) {
+            if(a[aoff + i] != b[boff + i]) return false;
+        }
+        return true;
+    }
+
+    // rsync weak checksum: low 16 bits - sum of bytes, high 16 bits - weighted sum
+    private static int checksum(byte[] buf, int off) {
+        int a = 0;
+        int b = 0;
+        for(int i = 0; i < BLOCK; i++) {
+            int x = buf[off + i] & 0xff;
+            a += x;
+            b += (BLOCK - i) * x;
+        }
+        return (a & 0xffff) | (b << 16);
+    }
+
+    private static int roll(int sum, byte out, byte in) {
+        int a = sum & 0xffff;
+        int b = sum >>> 16;
+        int x = out & 0xff;
+        a = (a - x + (in & 0xff)) & 0xffff;
+        b = (b - BLOCK * x + a) & 0xffff;
+        return a | (b << 16);
+    }
+}
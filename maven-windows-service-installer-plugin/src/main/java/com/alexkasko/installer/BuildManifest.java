@@ -0,0 +1,114 @@
+package com.alexkasko.installer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import static org.apache.commons.io.FileUtils.openInputStream;
+import static org.apache.commons.io.FileUtils.openOutputStream;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Persistent build manifest for incremental builds. Holds input fingerprints
+ * of completed stages and a cache of file content hashes keyed by
+ * file path, length and modification time, so unchanged files are not rehashed
+ * on every build.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class BuildManifest {
+    private static final String STAGE_PREFIX = "stage.";
+    private static final String FILE_PREFIX = "file.";
+
+    private final File file;
+    private final Properties props;
+
+    private BuildManifest(File file, Properties props) {
+        this.file = file;
+        this.props = props;
+    }
+
+    /**
+     * Loads manifest from file, returns empty manifest if file does not exist
+     *
+     * @param file manifest file
+     * @return manifest instance
+     * @throws IOException on read error
+     */
+    public static BuildManifest load(File file) throws IOException {
+        Properties props = new Properties();
+        if(file.exists()) {
+            InputStream is = null;
+            try {
+                is = openInputStream(file);
+                props.load(is);
+            } finally {
+                closeQuietly(is);
+            }
+        }
+        return new BuildManifest(file, props);
+    }
+
+    /**
+     * @param stage build stage
+     * @return fingerprint of stage inputs recorded on last successful run, null if none
+     */
+    public synchronized String getStageFingerprint(BuildStage stage) {
+        return props.getProperty(STAGE_PREFIX + stage.getId());
+    }
+
+    /**
+     * @param stage build stage
+     * @param fingerprint fingerprint of stage inputs
+     */
+    public synchronized void putStageFingerprint(BuildStage stage, String fingerprint) {
+        props.setProperty(STAGE_PREFIX + stage.getId(), fingerprint);
+    }
+
+    /**
+     * @param stage build stage to invalidate
+     */
+    public synchronized void removeStageFingerprint(BuildStage stage) {
+        props.remove(STAGE_PREFIX + stage.getId());
+    }
+
+    /**
+     * Returns SHA-1 of file contents, reusing cached value if file length
+     * and modification time are unchanged
+     *
+     * @param target file to hash
+     * @return lowercase hex SHA-1
+     * @throws IOException on read error
+     */
+    public String fileHash(File target) throws IOException {
+        String key = FILE_PREFIX + target.getAbsolutePath();
+        String stamp = target.length() + ":" + target.lastModified() + ":";
+        synchronized (this) {
+            String cached = props.getProperty(key);
+            if(null != cached && cached.startsWith(stamp)) return cached.substring(stamp.length());
+        }
+        String hash = Digests.sha1Hex(target);
+        synchronized (this) {
+            props.setProperty(key, stamp + hash);
+        }
+        return hash;
+    }
+
+    /**
+     * Writes manifest to file
+     *
+     * @throws IOException on write error
+     */
+    public synchronized void save() throws IOException {
+        OutputStream os = null;
+        try {
+            os = openOutputStream(file);
+            props.store(os, "windows-service-installer build manifest");
+        } finally {
+            closeQuietly(os);
+        }
+    }
+}
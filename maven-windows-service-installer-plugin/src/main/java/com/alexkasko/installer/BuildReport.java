@@ -0,0 +1,169 @@
+package com.alexkasko.installer;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static org.apache.commons.io.FileUtils.writeStringToFile;
+import static ru.concerteza.util.string.CtzConstants.UTF8;
+
+/**
+ * Collects per-stage metrics of installer build, writes them as JSON report
+ * and as a summary table into maven log
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class BuildReport {
+    private static final double MB = 1024 * 1024;
+
+    private final long started = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final Map<String, String> attributes = new LinkedHashMap<String, String>();
+    private final List<StageMetrics> stages = new ArrayList<StageMetrics>();
+
+    /**
+     * Adds build-wide attribute to report
+     *
+     * @param name attribute name
+     * @param value attribute value
+     * @return this report
+     */
+    public synchronized BuildReport attribute(String name, Object value) {
+        attributes.put(name, String.valueOf(value));
+        return this;
+    }
+
+    /**
+     * Registers stage and starts its timer
+     *
+     * @param stage build stage
+     * @return stage metrics
+     */
+    public synchronized StageMetrics start(BuildStage stage) {
+        StageMetrics res = new StageMetrics(stage);
+        stages.add(res);
+        return res;
+    }
+
+    /**
+     * Writes JSON report
+     *
+     * @param file report file
+     * @throws IOException on write error
+     */
+    public synchronized void write(File file) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"started\": ").append(quote(isoDate(started))).append(",\n");
+        sb.append("  \"wallMillis\": ").append((System.nanoTime() - startNanos) / 1000000).append(",\n");
+        for(Map.Entry<String, String> en : attributes.entrySet()) {
+            sb.append("  ").append(quote(en.getKey())).append(": ").append(quote(en.getValue())).append(",\n");
+        }
+        sb.append("  \"stages\": [");
+        for(int i = 0; i < stages.size(); i++) {
+            StageMetrics st = stages.get(i);
+            sb.append(i > 0 ? ",\n" : "\n");
+            sb.append("    {\"id\": ").append(quote(st.getStage().getId()));
+            sb.append(", \"status\": ").append(quote(null != st.getStatus() ? st.getStatus().getId() : "unfinished"));
+            sb.append(", \"wallMillis\": ").append(st.getWallMillis());
+            sb.append(", \"filesRead\": ").append(st.getFilesRead());
+            sb.append(", \"bytesRead\": ").append(st.getBytesRead());
+            sb.append(", \"filesWritten\": ").append(st.getFilesWritten());
+            sb.append(", \"bytesWritten\": ").append(st.getBytesWritten());
+            sb.append(", \"filesLinked\": ").append(st.getFilesLinked());
+            sb.append(", \"bytesLinked\": ").append(st.getBytesLinked());
+            sb.append(", \"filesSkipped\": ").append(st.getFilesSkipped());
+            sb.append(", \"bytesSkipped\": ").append(st.getBytesSkipped());
+            if(st.getCompressionRatio() >= 0) {
+                sb.append(", \"uncompressedBytes\": ").append(st.getUncompressedBytes());
+                sb.append(", \"compressedBytes\": ").append(st.getCompressedBytes());
+                sb.append(", \"compressionRatio\": ").append(String.format(Locale.US, "%.4f", st.getCompressionRatio()));
+            }
+            Map<String, CompressionStats.Counters> strategies = st.getCompression().snapshot();
+            if(!strategies.isEmpty()) {
+                sb.append(", \"compression\": {");
+                boolean first = true;
+                for(Map.Entry<String, CompressionStats.Counters> en : strategies.entrySet()) {
+                    CompressionStats.Counters co = en.getValue();
+                    sb.append(first ? "" : ", ").append(quote(en.getKey())).append(": {");
+                    sb.append("\"entries\": ").append(co.getEntries());
+                    sb.append(", \"uncompressedBytes\": ").append(co.getUncompressedBytes());
+                    sb.append(", \"compressedBytes\": ").append(co.getCompressedBytes());
+                    sb.append(", \"millis\": ").append(co.getMillis());
+                    sb.append("}");
+                    first = false;
+                }
+                sb.append("}");
+            }
+            sb.append("}");
+        }
+        sb.append("\n  ]\n}\n");
+        writeStringToFile(file, sb.toString(), UTF8);
+    }
+
+    /**
+     * Logs summary table of stages
+     *
+     * @param log maven log
+     */
+    public synchronized void logSummary(Log log) {
+        log.info(String.format(Locale.US, "%-18s %-8s %9s %9s %10s %9s %10s %9s %9s %7s",
+                "Stage", "Status", "Time, ms", "Files in", "MB in", "Files out", "MB out", "Linked", "Skipped", "Ratio"));
+        for(StageMetrics st : stages) {
+            String ratio = st.getCompressionRatio() >= 0 ? String.format(Locale.US, "%.3f", st.getCompressionRatio()) : "-";
+            log.info(String.format(Locale.US, "%-18s %-8s %9d %9d %10.2f %9d %10.2f %9d %9d %7s",
+                    st.getStage().getId(), null != st.getStatus() ? st.getStatus().getId() : "-", st.getWallMillis(),
+                    st.getFilesRead(), st.getBytesRead() / MB, st.getFilesWritten(), st.getBytesWritten() / MB,
+                    st.getFilesLinked(), st.getFilesSkipped(), ratio));
+        }
+        boolean header = false;
+        for(StageMetrics st : stages) {
+            for(Map.Entry<String, CompressionStats.Counters> en : st.getCompression().snapshot().entrySet()) {
+                if(!header) {
+                    log.info(String.format(Locale.US, "%-18s %-8s %9s %9s %10s %10s %7s",
+                            "Stage", "Strategy", "Time, ms", "Entries", "MB in", "MB out", "Ratio"));
+                    header = true;
+                }
+                CompressionStats.Counters co = en.getValue();
+                String ratio = co.getCompressionRatio() >= 0 ? String.format(Locale.US, "%.3f", co.getCompressionRatio()) : "-";
+                log.info(String.format(Locale.US, "%-18s %-8s %9d %9d %10.2f %10.2f %7s",
+                        st.getStage().getId(), en.getKey(), co.getMillis(), co.getEntries(),
+                        co.getUncompressedBytes() / MB, co.getCompressedBytes() / MB, ratio));
+            }
+        }
+        log.info("Total build time, ms: " + (System.nanoTime() - startNanos) / 1000000);
+    }
+
+    private static String isoDate(long millis) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date(millis));
+    }
+
+    private static String quote(String str) {
+        StringBuilder sb = new StringBuilder("\"");
+        for(char ch : str.toCharArray()) {
+            switch(ch) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if(ch < 0x20) sb.append(String.format("\\u%04x", (int) ch));
+                    else sb.append(ch);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
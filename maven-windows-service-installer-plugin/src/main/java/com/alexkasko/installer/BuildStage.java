@@ -0,0 +1,52 @@
+package com.alexkasko.installer;
+
+/**
+ * Installer build stages in execution order, each stage knows
+ * the stages whose outputs it consumes
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public enum BuildStage {
+    BIN("bin"),
+    IZPACK("izpack"),
+    UNINSTALL("uninstall"),
+    PRUNSRV("prunsrv"),
+    APP_DATA("appData"),
+    LIBS("libs"),
+    LAUNCHER("launcher"),
+    JRE("jre"),
+    IZPACK_RESOURCES("izpackResources"),
+    CLASSPATH("classpath", LIBS, LAUNCHER),
+    CDS("cds", CLASSPATH, JRE),
+    IZPACK_COMPILER("izpackCompiler", BIN, IZPACK, UNINSTALL, PRUNSRV, APP_DATA, LIBS, LAUNCHER, JRE, IZPACK_RESOURCES,
+            CLASSPATH, CDS),
+    INSTALLER("installer", UNINSTALL, JRE, IZPACK_COMPILER),
+    DIST("dist", BIN, UNINSTALL, PRUNSRV, APP_DATA, LIBS, LAUNCHER, CLASSPATH, CDS);
+
+    private final String id;
+    private final BuildStage[] upstream;
+
+    BuildStage(String id, BuildStage... upstream) {
+        this.id = id;
+        this.upstream = upstream;
+    }
+
+    /**
+     * @return stage id used in manifest and logs
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @param stage other stage
+     * @return whether this stage consumes outputs of the given one directly or through other stages
+     */
+    public boolean dependsOn(BuildStage stage) {
+        for(BuildStage up : upstream) {
+            if(up == stage || up.dependsOn(stage)) return true;
+        }
+        return false;
+    }
+}
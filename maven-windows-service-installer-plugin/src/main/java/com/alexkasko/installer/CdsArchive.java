@@ -0,0 +1,73 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.Arrays.asList;
+import static ru.concerteza.util.io.CtzIOUtils.mkdirs;
+
+/**
+ * Creates class list for application class data sharing archive: training run records classes loaded
+ * by the launcher. Archive itself is dumped from this list by install and start scripts on the target host,
+ * JVM checks classpath paths and jar modification times recorded in archive on startup, so archive
+ * dumped at build time would be ignored after installation.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class CdsArchive {
+    private static final String TRAINING_CLASS = "com.alexkasko.installer.TrainingLauncher";
+
+    private final File javaHome;
+    private final Log log;
+
+    /**
+     * @param javaHome Java 11 or later runtime for training run
+     * @param log maven log
+     */
+    public CdsArchive(File javaHome, Log log) {
+        this.javaHome = javaHome;
+        this.log = log;
+    }
+
+    /**
+     * Runs training in temporary working directory, so application side effects (logs, data, lock files)
+     * do not get into dist
+     *
+     * @param classpath application classpath
+     * @param launcherClass application class implementing DaemonLauncher
+     * @param trainingMillis how long application runs during training
+     * @param classList class list file to create
+     * @throws IOException on training error
+     */
+    public void createClassList(List<File> classpath, String launcherClass, long trainingMillis, File classList) throws IOException {
+        String java = Processes.javaTool(javaHome, "java").getAbsolutePath();
+        File workDir = new File(FileUtils.getTempDirectory(), "installer-cds-" + UUID.randomUUID());
+        mkdirs(workDir);
+        try {
+            log.info("Running CDS training for: [" + trainingMillis + "] ms with launcher: [" + launcherClass + "]");
+            FileUtils.deleteQuietly(classList);
+            Processes.run(asList(java, "-Xshare:off", "-XX:DumpLoadedClassList=" + classList.getAbsolutePath(),
+                    "-cp", classpath(classpath), TRAINING_CLASS, launcherClass, Long.toString(trainingMillis)), workDir);
+        } finally {
+            FileUtils.deleteQuietly(workDir);
+        }
+        if(!classList.isFile()) throw new IOException("CDS class list was not created: [" + classList.getAbsolutePath() + "]");
+        log.info("CDS class list written to: [" + classList.getPath() + "], size: [" + classList.length() + "]");
+    }
+
+    private static String classpath(List<File> files) {
+        List<String> paths = new ArrayList<String>();
+        for(File fi : files) {
+            paths.add(fi.getAbsolutePath());
+        }
+        return StringUtils.join(paths, File.pathSeparator);
+    }
+}
@@ -0,0 +1,83 @@
+package com.alexkasko.installer;
+
+import java.io.*;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import static org.apache.commons.io.FileUtils.openOutputStream;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Writes manifest-only jar whose {@code Class-Path} lists all application jars,
+ * so scripts do not need to build long classpath strings. Jar index ({@code META-INF/INDEX.LIST})
+ * is not written: with index class loader looks up resources only in the jars listed for
+ * resource package, so {@code ServiceLoader} sees service files of a single jar.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class ClasspathJar {
+    private ClasspathJar() {
+    }
+
+    /**
+     * Writes classpath jar
+     *
+     * @param target jar file to write
+     * @param jars classpath jars in classpath order, keyed by paths relative to target directory
+     * @param mainClass main class for '-jar' launch, may be null
+     * @throws IOException on IO error
+     */
+    public static void write(File target, LinkedHashMap<String, File> jars, String mainClass) throws IOException {
+        Manifest manifest = new Manifest();
+        Attributes attrs = manifest.getMainAttributes();
+        attrs.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        attrs.put(Attributes.Name.CLASS_PATH, classPath(jars.keySet()));
+        if(null != mainClass) attrs.put(Attributes.Name.MAIN_CLASS, mainClass);
+        JarOutputStream jar = null;
+        try {
+            jar = new JarOutputStream(new BufferedOutputStream(openOutputStream(target)), manifest);
+            jar.close();
+        } finally {
+            closeQuietly(jar);
+        }
+    }
+
+    /**
+     * @param jarFile jar file
+     * @return 'Main-Class' manifest attribute, null if jar has no manifest or attribute
+     * @throws IOException on IO error
+     */
+    public static String readMainClass(File jarFile) throws IOException {
+        JarFile jf = new JarFile(jarFile);
+        try {
+            Manifest manifest = jf.getManifest();
+            return null != manifest ? manifest.getMainAttributes().getValue(Attributes.Name.MAIN_CLASS) : null;
+        } finally {
+            jf.close();
+        }
+    }
+
+    private static String classPath(Collection<String> paths) {
+        StringBuilder sb = new StringBuilder();
+        for(String pa : paths) {
+            if(sb.length() > 0) sb.append(" ");
+            sb.append(encode(pa));
+        }
+        return sb.toString();
+    }
+
+    private static String encode(String path) {
+        try {
+            return new URI(null, null, path, null).getRawPath();
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid classpath entry: [" + path + "]", e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.UnhandledException;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static ru.concerteza.util.string.CtzConstants.UTF8;
+
+/**
+ * Chooses compression of zip entries by their content type. Entries that are compressed
+ * already (jars, zips, images etc.) are stored, other entries are deflated with configured level.
+ * Deflating compressed data saves almost nothing, but costs CPU both at build time
+ * and when installer is unpacked.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class CompressionPolicy {
+    /**
+     * Extensions of files stored without compression by default
+     */
+    public static final String DEFAULT_STORED_EXTENSIONS = "jar,war,ear,zip,jmod,gz,tgz,bz2,xz,zst,7z,png,gif,jpg,jpeg";
+
+    private final int level;
+    private final Set<String> storedExtensions;
+
+    /**
+     * @param level deflate level, from 0 to 9
+     * @param storedExtensions extensions of files to store without compression, case-insensitive
+     */
+    public CompressionPolicy(int level, Collection<String> storedExtensions) {
+        if(level < 0 || level > 9) throw new IllegalArgumentException(
+                "Invalid compression level: [" + level + "], must be from 0 to 9");
+        this.level = level;
+        Set<String> exts = new TreeSet<String>();
+        for(String ext : storedExtensions) {
+            String trimmed = StringUtils.removeStart(ext.trim(), ".").toLowerCase(Locale.ENGLISH);
+            if(trimmed.length() > 0) exts.add(trimmed);
+        }
+        this.storedExtensions = Collections.unmodifiableSet(exts);
+    }
+
+    /**
+     * @param level deflate level, from 0 to 9
+     * @param storedExtensions comma-separated extensions of files to store without compression
+     * @return policy
+     */
+    public static CompressionPolicy of(int level, String storedExtensions) {
+        return new CompressionPolicy(level, Arrays.asList(StringUtils.split(StringUtils.defaultString(storedExtensions), ",")));
+    }
+
+    /**
+     * @return policy that deflates all entries with default level
+     */
+    public static CompressionPolicy deflateAll() {
+        return new CompressionPolicy(6, Collections.<String>emptyList());
+    }
+
+    /**
+     * @param name entry name or file path
+     * @return whether entry must be stored without compression
+     */
+    public boolean isStored(String name) {
+        if(0 == level) return true;
+        int slash = name.lastIndexOf('/');
+        int dot = name.lastIndexOf('.');
+        if(dot <= slash + 1) return false;
+        return storedExtensions.contains(name.substring(dot + 1).toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * @return deflate level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * @return short policy identifier, changes with level and stored extensions
+     */
+    public String getId() {
+        try {
+            MessageDigest digest = Digests.sha1();
+            digest.update((level + ":" + StringUtils.join(storedExtensions, ",")).getBytes(UTF8));
+            return level + "-" + Digests.toHex(digest.digest()).substring(0, 8);
+        } catch (UnsupportedEncodingException e) {
+            throw new UnhandledException(e);
+        }
+    }
+}
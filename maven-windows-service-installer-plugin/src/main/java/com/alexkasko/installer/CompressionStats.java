@@ -0,0 +1,108 @@
+package com.alexkasko.installer;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size and time counters of archive entries grouped by compression strategy,
+ * e.g. 'stored', 'deflate' or 'gzip'. Time is a sum of the time spent on entries,
+ * entries compressed concurrently may add up to more than the stage wall time.
+ * Counters may be updated from multiple threads.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class CompressionStats {
+    /**
+     * Entries stored without compression
+     */
+    public static final String STORED = "stored";
+    /**
+     * Entries deflated with policy level
+     */
+    public static final String DEFLATE = "deflate";
+    /**
+     * Entries copied from cached segment without recompression
+     */
+    public static final String CACHED = "cached";
+    /**
+     * Installer jar written by IzPack packager
+     */
+    public static final String IZPACK = "izpack";
+
+    private final Map<String, Counters> strategies = new LinkedHashMap<String, Counters>();
+
+    /**
+     * Accounts compressed entry or stream
+     *
+     * @param strategy strategy name
+     * @param uncompressed size of source data
+     * @param compressed size of written data
+     * @param nanos time spent
+     */
+    public synchronized void add(String strategy, long uncompressed, long compressed, long nanos) {
+        Counters co = strategies.get(strategy);
+        if(null == co) {
+            co = new Counters();
+            strategies.put(strategy, co);
+        }
+        co.entries += 1;
+        co.uncompressedBytes += Math.max(uncompressed, 0);
+        co.compressedBytes += Math.max(compressed, 0);
+        co.nanos += nanos;
+    }
+
+    /**
+     * @return copy of counters keyed by strategy names in order of first use
+     */
+    public synchronized Map<String, Counters> snapshot() {
+        Map<String, Counters> res = new LinkedHashMap<String, Counters>();
+        for(Map.Entry<String, Counters> en : strategies.entrySet()) {
+            res.put(en.getKey(), en.getValue().copy());
+        }
+        return Collections.unmodifiableMap(res);
+    }
+
+    /**
+     * Counters of a single strategy
+     */
+    public static class Counters {
+        private long entries;
+        private long uncompressedBytes;
+        private long compressedBytes;
+        private long nanos;
+
+        private Counters copy() {
+            Counters res = new Counters();
+            res.entries = entries;
+            res.uncompressedBytes = uncompressedBytes;
+            res.compressedBytes = compressedBytes;
+            res.nanos = nanos;
+            return res;
+        }
+
+        public long getEntries() {
+            return entries;
+        }
+
+        public long getUncompressedBytes() {
+            return uncompressedBytes;
+        }
+
+        public long getCompressedBytes() {
+            return compressedBytes;
+        }
+
+        public long getMillis() {
+            return nanos / 1000000;
+        }
+
+        /**
+         * @return compressed to uncompressed size ratio, negative if nothing was compressed
+         */
+        public double getCompressionRatio() {
+            return uncompressedBytes > 0 ? (double) compressedBytes / uncompressedBytes : -1;
+        }
+    }
+}
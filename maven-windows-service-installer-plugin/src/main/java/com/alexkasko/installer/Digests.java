@@ -0,0 +1,83 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.lang.UnhandledException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Content hashing utilities, SHA-1 is used for all build fingerprints
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class Digests {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Digests() {
+    }
+
+    /**
+     * @return new SHA-1 digest instance
+     */
+    public static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new UnhandledException(e);
+        }
+    }
+
+    /**
+     * Computes SHA-1 of the file contents
+     *
+     * @param file file to hash
+     * @return lowercase hex SHA-1
+     * @throws IOException on read error
+     */
+    public static String sha1Hex(File file) throws IOException {
+        InputStream is = null;
+        try {
+            is = new FileInputStream(file);
+            return sha1Hex(is);
+        } finally {
+            closeQuietly(is);
+        }
+    }
+
+    /**
+     * Computes SHA-1 of the stream contents, stream is not closed
+     *
+     * @param is stream to hash
+     * @return lowercase hex SHA-1
+     * @throws IOException on read error
+     */
+    public static String sha1Hex(InputStream is) throws IOException {
+        MessageDigest digest = sha1();
+        byte[] buf = new byte[8192];
+        int read;
+        while(-1 != (read = is.read(buf))) {
+            digest.update(buf, 0, read);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @param bytes bytes to encode
+     * @return lowercase hex string
+     */
+    public static String toHex(byte[] bytes) {
+        char[] res = new char[bytes.length * 2];
+        for(int i = 0; i < bytes.length; i++) {
+            res[i * 2] = HEX[(bytes[i] >> 4) & 0x0f];
+            res[i * 2 + 1] = HEX[bytes[i] & 0x0f];
+        }
+        return new String(res);
+    }
+}
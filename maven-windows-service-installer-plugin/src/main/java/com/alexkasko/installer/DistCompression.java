@@ -0,0 +1,153 @@
+package com.alexkasko.installer;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
+import org.apache.commons.compress.compressors.xz.XZCompressorOutputStream;
+import org.apache.commons.io.FilenameUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compression formats of unix distribution tar. Gzip is readable everywhere, xz gives
+ * the smallest archives but is slow and single-threaded, zstd is close to xz in size
+ * and much faster both to compress and to unpack. Tar is a single stream,
+ * so compressed files inside it are compressed again with any format except 'none'.
+ * Xz and zstd library classes are loaded only when their format is used, so builds with
+ * other formats do not depend on them, e.g. on zstd native library support for the platform.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public enum DistCompression {
+    GZIP("gzip", ".tgz", ".tar.gz", null, null),
+    XZ("xz", ".tar.xz", ".txz", "org.tukaani.xz.XZOutputStream", "org.tukaani:xz"),
+    ZSTD("zstd", ".tar.zst", ".tzst", "com.github.luben.zstd.ZstdOutputStream", "com.github.luben:zstd-jni"),
+    NONE("none", ".tar", ".tar", null, null);
+
+    private final String id;
+    private final String extension;
+    private final String shortExtension;
+    private final String libraryClass;
+    private final String libraryArtifact;
+
+    DistCompression(String id, String extension, String shortExtension, String libraryClass, String libraryArtifact) {
+        this.id = id;
+        this.extension = extension;
+        this.shortExtension = shortExtension;
+        this.libraryClass = libraryClass;
+        this.libraryArtifact = libraryArtifact;
+    }
+
+    /**
+     * @param id format name, e.g. 'gzip'
+     * @return format
+     * @throws IllegalArgumentException on unknown format name
+     */
+    public static DistCompression of(String id) {
+        for(DistCompression dc : values()) {
+            if(dc.id.equalsIgnoreCase(id.trim())) return dc;
+        }
+        throw new IllegalArgumentException("Unknown dist compression: [" + id + "], must be one of: " +
+                "'gzip', 'xz', 'zstd', 'none'");
+    }
+
+    /**
+     * Checks that compression library is available
+     *
+     * @return this format
+     * @throws IllegalStateException if format library is not on plugin classpath
+     */
+    public DistCompression checkAvailable() {
+        if(null == libraryClass) return this;
+        try {
+            Class.forName(libraryClass, false, DistCompression.class.getClassLoader());
+            return this;
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(missingLibraryMessage(), e);
+        }
+    }
+
+    /**
+     * Opens compressing stream
+     *
+     * @param out target stream, closed with returned stream
+     * @param level compression level, negative for format default: 6 for gzip and xz, 3 for zstd
+     * @param parallelism number of compressing threads, used by gzip and zstd
+     * @return compressing stream
+     * @throws IOException on IO error or if format library cannot be loaded
+     */
+    public OutputStream open(OutputStream out, int level, int parallelism) throws IOException {
+        try {
+            switch(this) {
+                case GZIP:
+                    int gzipLevel = level >= 0 ? level : 6;
+                    if(parallelism > 1) return new ParallelGzipOutputStream(out, parallelism, gzipLevel);
+                    GzipParameters params = new GzipParameters();
+                    params.setCompressionLevel(gzipLevel);
+                    return new GzipCompressorOutputStream(out, params);
+                case XZ:
+                    return Xz.open(out, level >= 0 ? level : 6);
+                case ZSTD:
+                    return Zstd.open(out, level >= 0 ? level : 3, parallelism);
+                default:
+                    return out;
+            }
+        } catch (LinkageError e) {
+            // missing jar or native library
+            throw new IOException(missingLibraryMessage(), e);
+        }
+    }
+
+    /**
+     * @param fileName archive file name
+     * @return file name without format extension or without the last extension
+     *         if it's not an extension of this format
+     */
+    public String baseName(String fileName) {
+        for(String ext : new String[]{extension, shortExtension}) {
+            if(fileName.endsWith(ext)) return fileName.substring(0, fileName.length() - ext.length());
+        }
+        return FilenameUtils.getBaseName(fileName);
+    }
+
+    /**
+     * @param fileName archive file name
+     * @return whether file name has extension of this format
+     */
+    public boolean matches(String fileName) {
+        return fileName.endsWith(extension) || fileName.endsWith(shortExtension);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return usual extension of archive file, e.g. '.tgz'
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    private String missingLibraryMessage() {
+        return "Dist compression: [" + id + "] requires library: [" + libraryArtifact + "], " +
+                "it is excluded from plugin classpath or not supported on this platform";
+    }
+
+    // library classes are loaded only when their format is used
+    private static class Xz {
+        private static OutputStream open(OutputStream out, int level) throws IOException {
+            return new XZCompressorOutputStream(out, level);
+        }
+    }
+
+    private static class Zstd {
+        private static OutputStream open(OutputStream out, int level, int parallelism) throws IOException {
+            ZstdOutputStream zstd = new ZstdOutputStream(out, level);
+            if(parallelism > 1) zstd.setWorkers(parallelism);
+            return zstd;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static ru.concerteza.util.string.CtzConstants.UTF8;
+
+/**
+ * Content hashes of all files in dist directory, written in 'sha1sum' format, so installed
+ * application may be checked with 'sha1sum -c'. Manifest of a release is used as a base
+ * for patch packages of the following releases.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class DistManifest {
+    private DistManifest() {
+    }
+
+    /**
+     * Hashes all files in directory tree
+     *
+     * @param dir root directory
+     * @return lowercase hex SHA-1 hashes keyed by paths relative to root, '/' is used as separator
+     * @throws IOException on read error
+     */
+    public static SortedMap<String, String> scan(File dir) throws IOException {
+        SortedMap<String, String> res = new TreeMap<String, String>();
+        for(Map.Entry<String, File> en : Archives.listTree(dir).entrySet()) {
+            if(en.getValue().isFile()) res.put(en.getKey(), Digests.sha1Hex(en.getValue()));
+        }
+        return res;
+    }
+
+    /**
+     * @param manifest hashes keyed by paths
+     * @param file manifest file
+     * @throws IOException on write error
+     */
+    public static void write(SortedMap<String, String> manifest, File file) throws IOException {
+        FileUtils.writeStringToFile(file, format(manifest), UTF8);
+    }
+
+    /**
+     * @param manifest hashes keyed by paths
+     * @return manifest file contents
+     */
+    public static String format(SortedMap<String, String> manifest) {
+        StringBuilder sb = new StringBuilder();
+        for(Map.Entry<String, String> en : manifest.entrySet()) {
+            sb.append(en.getValue()).append("  ").append(en.getKey()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param file manifest file
+     * @return hashes keyed by paths
+     * @throws IOException on read error or invalid manifest
+     */
+    @SuppressWarnings("unchecked")
+    public static SortedMap<String, String> read(File file) throws IOException {
+        SortedMap<String, String> res = new TreeMap<String, String>();
+        for(String line : (List<String>) FileUtils.readLines(file, UTF8)) {
+            if(0 == line.length()) continue;
+            int sep = line.indexOf("  ");
+            if(40 != sep) throw new IOException("Invalid manifest line: [" + line + "] in file: [" + file.getPath() + "]");
+            res.put(line.substring(sep + 2), line.substring(0, sep));
+        }
+        return res;
+    }
+}
@@ -0,0 +1,162 @@
+package com.alexkasko.installer;
+
+import org.springframework.core.io.Resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.*;
+
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static ru.concerteza.util.io.CtzResourceUtils.RESOURCE_LOADER;
+import static ru.concerteza.util.io.CtzResourceUtils.RESOURCE_RESOLVER;
+import static ru.concerteza.util.io.CtzResourceUtils.path;
+import static ru.concerteza.util.string.CtzConstants.UTF8;
+
+/**
+ * Builder for build stage input fingerprints. Disabled instances
+ * ignore all inputs, so fingerprints cost nothing in non-incremental builds.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class Fingerprint {
+    private final MessageDigest digest;
+    private final BuildManifest manifest;
+    private String hex;
+
+    private Fingerprint(MessageDigest digest, BuildManifest manifest) {
+        this.digest = digest;
+        this.manifest = manifest;
+    }
+
+    /**
+     * @param manifest manifest used to cache file hashes, may be null
+     * @return enabled fingerprint
+     */
+    public static Fingerprint of(BuildManifest manifest) {
+        return new Fingerprint(Digests.sha1(), manifest);
+    }
+
+    /**
+     * @return fingerprint that ignores all inputs
+     */
+    public static Fingerprint disabled() {
+        return new Fingerprint(null, null);
+    }
+
+    /**
+     * @param value string input
+     * @return this instance
+     */
+    public Fingerprint add(String value) {
+        if(null == digest) return this;
+        try {
+            digest.update(String.valueOf(value).getBytes(UTF8));
+            digest.update((byte) 0);
+        } catch (IOException e) {
+            // cannot happen for UTF-8
+            throw new IllegalStateException(e);
+        }
+        return this;
+    }
+
+    /**
+     * @param file file input, hashed by name and contents, missing files are hashed by name only
+     * @return this instance
+     * @throws IOException on read error
+     */
+    public Fingerprint addFile(File file) throws IOException {
+        if(null == digest) return this;
+        add(file.getAbsolutePath());
+        add(file.isFile() ? fileHash(file) : "<missing>");
+        return this;
+    }
+
+    /**
+     * @param dir directory input, hashed by relative paths and contents of all nested files
+     * @return this instance
+     * @throws IOException on read error
+     */
+    public Fingerprint addTree(File dir) throws IOException {
+        if(null == digest) return this;
+        add(dir.getAbsolutePath());
+        return addTreeContents(dir);
+    }
+
+    /**
+     * @param dir directory input, hashed by relative paths and contents of all nested files,
+     *            does not depend on directory location
+     * @return this instance
+     * @throws IOException on read error
+     */
+    public Fingerprint addTreeContents(File dir) throws IOException {
+        if(null == digest) return this;
+        for(Map.Entry<String, File> en : Archives.listTree(dir).entrySet()) {
+            add(en.getKey());
+            add(fileHash(en.getValue()));
+        }
+        return this;
+    }
+
+    /**
+     * @param pattern resource pattern, e.g. 'classpath:/bin/*', hashed by paths and contents
+     * @return this instance
+     * @throws IOException on read error
+     */
+    public Fingerprint addResources(String pattern) throws IOException {
+        if(null == digest) return this;
+        Resource[] resources = RESOURCE_RESOLVER.getResources(pattern);
+        SortedMap<String, Resource> sorted = new TreeMap<String, Resource>();
+        for(Resource re : resources) {
+            sorted.put(path(re), re);
+        }
+        for(Map.Entry<String, Resource> en : sorted.entrySet()) {
+            add(en.getKey());
+            addResourceContents(en.getValue());
+        }
+        return this;
+    }
+
+    /**
+     * @param path single resource path, hashed by path and contents
+     * @return this instance
+     * @throws IOException on read error
+     */
+    public Fingerprint addResource(String path) throws IOException {
+        if(null == digest) return this;
+        add(path);
+        addResourceContents(RESOURCE_LOADER.getResource(path));
+        return this;
+    }
+
+    /**
+     * Completes fingerprint, no inputs can be added after this call
+     *
+     * @return lowercase hex fingerprint, null for disabled instance
+     */
+    public String hex() {
+        if(null == digest) return null;
+        if(null == hex) hex = Digests.toHex(digest.digest());
+        return hex;
+    }
+
+    private String fileHash(File file) throws IOException {
+        return null != manifest ? manifest.fileHash(file) : Digests.sha1Hex(file);
+    }
+
+    private void addResourceContents(Resource re) throws IOException {
+        if(!re.exists()) {
+            add("<missing>");
+            return;
+        }
+        InputStream is = null;
+        try {
+            is = re.getInputStream();
+            add(Digests.sha1Hex(is));
+        } finally {
+            closeQuietly(is);
+        }
+    }
+}
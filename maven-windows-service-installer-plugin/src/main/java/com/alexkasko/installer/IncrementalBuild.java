@@ -0,0 +1,123 @@
+package com.alexkasko.installer;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Decides which build stages must be run. Stage runs if its inputs fingerprint differs
+ * from the one recorded in manifest, if any upstream stage was run in this build
+ * or if any of its outputs is missing. With incremental mode disabled all stages are run.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class IncrementalBuild {
+    private final BuildManifest manifest;
+    private final Log log;
+    private final Set<BuildStage> rebuilt = EnumSet.noneOf(BuildStage.class);
+
+    private IncrementalBuild(BuildManifest manifest, Log log) {
+        this.manifest = manifest;
+        this.log = log;
+    }
+
+    /**
+     * @param manifestFile build manifest file
+     * @param log maven log
+     * @return incremental build backed by manifest file
+     * @throws IOException on manifest read error
+     */
+    public static IncrementalBuild enabled(File manifestFile, Log log) throws IOException {
+        return new IncrementalBuild(BuildManifest.load(manifestFile), log);
+    }
+
+    /**
+     * Creates build that runs all stages, existing manifest is deleted because
+     * outputs produced by this build are not described by it
+     *
+     * @param manifestFile build manifest file
+     * @param log maven log
+     * @return non-incremental build
+     */
+    public static IncrementalBuild disabled(File manifestFile, Log log) {
+        if(manifestFile.exists() && !manifestFile.delete()) {
+            log.warn("Cannot delete stale build manifest: [" + manifestFile.getAbsolutePath() + "]");
+        }
+        return new IncrementalBuild(null, log);
+    }
+
+    /**
+     * @return new fingerprint builder for stage inputs
+     */
+    public Fingerprint fingerprint() {
+        return null != manifest ? Fingerprint.of(manifest) : Fingerprint.disabled();
+    }
+
+    /**
+     * @return new fingerprint builder that is enabled even in non-incremental builds,
+     *         file hashes are cached in manifest if it is available
+     */
+    public Fingerprint contentFingerprint() {
+        return Fingerprint.of(manifest);
+    }
+
+    /**
+     * Checks whether stage must be run, logs the reason of decision. If stage is to be run
+     * its previous fingerprint and fingerprints of all downstream stages are invalidated
+     * until {@link #done(BuildStage, Fingerprint)} is called for them.
+     *
+     * @param stage build stage
+     * @param inputs fingerprint of stage inputs
+     * @param outputs files or directories produced by stage
+     * @return true if stage must be run
+     * @throws IOException on manifest write error
+     */
+    public synchronized boolean needsRun(BuildStage stage, Fingerprint inputs, File... outputs) throws IOException {
+        if(null == manifest) return true;
+        String reason = runReason(stage, inputs.hex(), outputs);
+        if(null == reason) {
+            log.info("Stage [" + stage.getId() + "] skipped: inputs unchanged");
+            return false;
+        }
+        log.info("Stage [" + stage.getId() + "] running: " + reason);
+        // outputs may be left half-written if stage fails, downstream stages
+        // must not be skipped in the next build if this build fails before they are run
+        manifest.removeStageFingerprint(stage);
+        for(BuildStage down : BuildStage.values()) {
+            if(down.dependsOn(stage)) manifest.removeStageFingerprint(down);
+        }
+        manifest.save();
+        return true;
+    }
+
+    /**
+     * Records successful stage run
+     *
+     * @param stage build stage
+     * @param inputs fingerprint of stage inputs, the same that was passed to {@link #needsRun}
+     * @throws IOException on manifest write error
+     */
+    public synchronized void done(BuildStage stage, Fingerprint inputs) throws IOException {
+        rebuilt.add(stage);
+        if(null == manifest) return;
+        manifest.putStageFingerprint(stage, inputs.hex());
+        manifest.save();
+    }
+
+    private String runReason(BuildStage stage, String fingerprint, File[] outputs) {
+        String previous = manifest.getStageFingerprint(stage);
+        if(null == previous) return "no previous run recorded";
+        if(!previous.equals(fingerprint)) return "inputs changed";
+        for(BuildStage up : rebuilt) {
+            if(stage.dependsOn(up)) return "upstream stage [" + up.getId() + "] was run";
+        }
+        for(File fi : outputs) {
+            if(!fi.exists()) return "output [" + fi.getPath() + "] is missing";
+        }
+        return null;
+    }
+}
@@ -7,35 +7,50 @@ import com.google.common.collect.Collections2;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.izforge.izpack.compiler.CompilerConfig;
+import com.izforge.izpack.compiler.PackagerListener;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.commons.io.filefilter.*;
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.UnhandledException;
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.springframework.core.io.Resource;
 import ru.concerteza.util.archive.TarFunction;
-import ru.concerteza.util.archive.ZipFunction;
-import ru.concerteza.util.freemarker.FreemarkerEngine;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.zip.GZIPOutputStream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
-
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.alexkasko.installer.BuildStage.*;
 import static java.util.Arrays.asList;
 import static org.apache.commons.io.FileUtils.openOutputStream;
+import static org.apache.commons.io.FileUtils.sizeOfDirectory;
 import static org.apache.commons.io.FileUtils.writeStringToFile;
 import static org.apache.commons.io.FilenameUtils.getBaseName;
+import static org.apache.commons.io.FilenameUtils.getName;
 import static org.apache.commons.io.IOUtils.closeQuietly;
 import static org.apache.commons.io.IOUtils.copyLarge;
 import static ru.concerteza.util.string.CtzConstants.UTF8;
-import static ru.concerteza.util.io.CtzCopyCheckLMUtils.*;
 import static ru.concerteza.util.collection.CtzCollectionUtils.fireTransform;
 import static ru.concerteza.util.io.CtzIOUtils.listFiles;
 import static ru.concerteza.util.io.CtzIOUtils.mkdirs;
@@ -53,8 +68,9 @@ import static ru.concerteza.util.io.CtzResourceUtils.path;
  * @requiresDependencyResolution runtime
  */
 public class InstallerMojo extends SettingsMojo {
-    private final FreemarkerEngine freemarker = new FreemarkerEngine();
     private final MarkExecutableFunction markExecutableFunction = new MarkExecutableFunction();
+    private Staging staging;
+    private TemplateEngine templates;
 
     /**
      * Plugin entry point
@@ -63,23 +79,227 @@ public class InstallerMojo extends SettingsMojo {
      * @throws MojoFailureException
      */
     public void execute() throws MojoExecutionException, MojoFailureException {
+        staging = new Staging(stagingMode, getLog());
+        BuildReport report = new BuildReport();
         try {
-            Dirs dirs = prepareDirs();
-            copyBin(dirs.bin);
-            copyIzpack();
-            copyUninstall(dirs.uninstall);
-            copyPrunsrv(dirs.bin);
-            copyAppData();
-            markBinExecutable(dirs.bin);
-            copyLibs(dirs.lib);
-            copyLauncher(dirs.bin);
-            File jre = copyJRE();
-            copyIzPackResources();
-            runIzPackCompiler();
-            packInstaller(jre);
-            if(buildUnixDist) packDist();
+            final IncrementalBuild build = incrementalBuild ? IncrementalBuild.enabled(buildManifestFile, getLog()) :
+                    IncrementalBuild.disabled(buildManifestFile, getLog());
+            final String settings = settingsDigest();
+            // fail fast on unknown profile or compression settings instead of failing in stages
+            if(null != jvmProfile) JvmProfile.of(jvmProfile);
+            final CompressionPolicy policy = compressionPolicy();
+            if(buildUnixDist) DistCompression.of(distCompression).checkAvailable();
+            if(sharedStore && null == sharedJreKey) sharedJreKey = runtimeKey();
+            // settings are read once, stages render templates concurrently
+            templates = new TemplateEngine(TemplateEngine.snapshot(this, AbstractMojo.class));
+            report.attribute("project", project.getId()).attribute("parallelism", effectiveParallelism())
+                    .attribute("stagingMode", stagingMode).attribute("incrementalBuild", incrementalBuild)
+                    .attribute("compressionPolicy", policy.getId());
+            final Dirs dirs = prepareDirs();
+            final File jre = new File(izpackDir, "jre");
+            Map<BuildStage, Callable<Void>> stages = new EnumMap<BuildStage, Callable<Void>>(BuildStage.class);
+            addStage(stages, build, report, new StageTask(BIN, new File(dirs.bin, "java-daemon")) {
+                Fingerprint fingerprint() throws IOException {
+                    return build.fingerprint().add(settings)
+                            .addResources("classpath:/bin/*").addResources("classpath:/bin/java-daemon/*");
+                }
+                void run(StageMetrics metrics) throws Exception {
+                    copyBin(dirs.bin, metrics);
+                }
+                void complete() {
+                    markBinExecutable(dirs.bin);
+                }
+            });
+            addStage(stages, build, report, new StageTask(IZPACK, new File(izpackDir, "default-install-dir.txt")) {
+                Fingerprint fingerprint() throws IOException {
+                    return izpackFingerprint(build, settings);
+                }
+                void run(StageMetrics metrics) throws Exception {
+                    copyIzpack(metrics);
+                }
+            });
+            addStage(stages, build, report, new StageTask(UNINSTALL, new File(dirs.uninstall, getName(uninstallLauncherPath()))) {
+                Fingerprint fingerprint() throws IOException {
+                    return build.fingerprint().add(settings)
+                            .addResource(installLauncherPath()).addResource(uninstallLauncherPath());
+                }
+                void run(StageMetrics metrics) throws Exception {
+                    copyUninstall(dirs.uninstall, metrics);
+                }
+            });
+            addStage(stages, build, report, new StageTask(PRUNSRV, new File(dirs.bin, "prunsrv.exe")) {
+                Fingerprint fingerprint() throws IOException {
+                    return build.fingerprint().add(settings).addResources("classpath:/prunsrv/*");
+                }
+                void run(StageMetrics metrics) throws Exception {
+                    copyPrunsrv(dirs.bin, metrics);
+                }
+            });
+            addStage(stages, build, report, new StageTask(APP_DATA, appDataOutputs()) {
+                Fingerprint fingerprint() throws IOException {
+                    return appDataFingerprint(build);
+                }
+                void run(StageMetrics metrics) throws Exception {
+                    copyAppData(metrics);
+                }
+            });
+            addStage(stages, build, report, new StageTask(LIBS, libsOutputs(dirs.lib)) {
+                Fingerprint fingerprint() throws IOException {
+                    return libsFingerprint(build).add(String.valueOf(sharedStore));
+                }
+                void run(StageMetrics metrics) throws Exception {
+                    copyLibs(dirs.lib, metrics);
+                    if(sharedStore) metrics.staged(sharedStore().publish(dirs.lib));
+                }
+            });
+            final File launcherDest = new File(dirs.bin, prunsrvLauncherJarFile);
+            addStage(stages, build, report, new StageTask(LAUNCHER, launcherDest) {
+                Fingerprint fingerprint() throws IOException {
+                    return build.fingerprint().addFile(launcherFile()).add(launcherDest.getAbsolutePath());
+                }
+                void run(StageMetrics metrics) throws Exception {
+                    metrics.staged(staging.copyFile(launcherFile(), launcherDest));
+                }
+            });
+            addStage(stages, build, report, new StageTask(JRE, jre) {
+                Fingerprint fingerprint() throws IOException {
+                    return jlinkRuntime ? jlinkFingerprint(build) : build.fingerprint().addTree(jreDir);
+                }
+                void run(StageMetrics metrics) throws Exception {
+                    if(jlinkRuntime) {
+                        linkJRE(jre, metrics);
+                    } else {
+                        // copy JRE to use loose pack feature
+                        metrics.staged(staging.copyDirectory(jreDir, jre));
+                    }
+                }
+            });
+            addStage(stages, build, report, new StageTask(IZPACK_RESOURCES, new File(izpackDir, "bin/langpacks/installer/xxx.xml")) {
+                Fingerprint fingerprint() throws IOException {
+                    return izpackResourcesFingerprint(build, settings);
+                }
+                void run(StageMetrics metrics) throws Exception {
+                    copyIzPackResources(metrics);
+                }
+            });
+            final File classpathJar = new File(dirs.bin, classpathJarFile);
+            addStage(stages, build, report, new StageTask(CLASSPATH, classpathJar) {
+                Fingerprint fingerprint() {
+                    return build.fingerprint().add(settings);
+                }
+                void run(StageMetrics metrics) throws Exception {
+                    writeClasspathJar(dirs, classpathJar, metrics);
+                }
+            });
+            if(cdsArchive) {
+                // archive is dumped from class list by scripts on the target host
+                final File classList = new File(dirs.bin, getCdsClassListFile());
+                addStage(stages, build, report, new StageTask(CDS, classList) {
+                    Fingerprint fingerprint() {
+                        return build.fingerprint().add(settings);
+                    }
+                    void run(StageMetrics metrics) throws Exception {
+                        List<File> classpath = asList(classpathJar);
+                        File javaHome = null != cdsJavaHome ? cdsJavaHome : jre;
+                        // archive dumped by previous versions is read-only and bound to build paths
+                        File stale = new File(dirs.bin, cdsArchiveFile);
+                        if(stale.exists() && stale.setWritable(true)) FileUtils.deleteQuietly(stale);
+                        new CdsArchive(javaHome, getLog()).createClassList(classpath, prunsrvDaemonLauncherClass,
+                                cdsTrainingMillis, classList);
+                        metrics.read(classpathJar);
+                        metrics.written(classList);
+                    }
+                });
+            }
+            // compiler reads rendered izpack.xml and copied installer resources
+            final Fingerprint compilerFp = build.fingerprint().add(settings)
+                    .add(izpackFingerprint(build, settings).hex())
+                    .add(izpackResourcesFingerprint(build, settings).hex());
+            if(null != installConfigFile) compilerFp.addFile(installConfigFile);
+            if(keepIzpackOutputFile) {
+                addStage(stages, build, report, new StageTask(IZPACK_COMPILER, izpackOutputFile) {
+                    Fingerprint fingerprint() {
+                        return compilerFp;
+                    }
+                    void run(StageMetrics metrics) throws Exception {
+                        runIzPackCompiler();
+                        metrics.read(distDir);
+                        metrics.written(izpackOutputFile);
+                    }
+                });
+            }
+            addStage(stages, build, report, new StageTask(INSTALLER, installerOutputFile) {
+                Fingerprint fingerprint() throws IOException {
+                    Fingerprint fp = build.fingerprint().add(settings).addResource(installLauncherPath());
+                    // compiler runs as a part of installer packing
+                    if(!keepIzpackOutputFile) fp.add(compilerFp.hex());
+                    return fp;
+                }
+                void run(StageMetrics metrics) throws Exception {
+                    // linked image exists only in staging dir
+                    File jreSource = jlinkRuntime ? jre : jreDir;
+                    File jreSegment = useJreCache ? new JreCache(jreCacheDir, effectiveParallelism(), policy, getLog())
+                            .segment(jreSource, build.contentFingerprint().addTreeContents(jreSource).hex(),
+                                    metrics.getCompression()) : null;
+                    packInstaller(jre, jreSegment, policy, metrics);
+                }
+            });
+            if(buildUnixDist) {
+                addStage(stages, build, report, new StageTask(DIST, distOutputFile) {
+                    Fingerprint fingerprint() {
+                        return build.fingerprint().add(settings);
+                    }
+                    void run(StageMetrics metrics) throws Exception {
+                        packDist(metrics);
+                    }
+                });
+            }
+            new StageExecutor(serialStages ? 1 : stageThreads, getLog()).run(stages);
+            writeReleaseManifest();
         } catch (Exception e) {
             throw new MojoFailureException("IzPack error", e);
+        } finally {
+            writeReport(report);
+        }
+    }
+
+    private void addStage(Map<BuildStage, Callable<Void>> stages, final IncrementalBuild build,
+                          final BuildReport report, final StageTask task) {
+        stages.put(task.stage, new Callable<Void>() {
+            public Void call() throws Exception {
+                runStage(build, report, task);
+                return null;
+            }
+        });
+    }
+
+    private void runStage(IncrementalBuild build, BuildReport report, StageTask task) throws Exception {
+        StageMetrics metrics = report.start(task.stage);
+        try {
+            Fingerprint fp = task.fingerprint();
+            if(build.needsRun(task.stage, fp, task.outputs)) {
+                task.run(metrics);
+                build.done(task.stage, fp);
+                metrics.finish(StageMetrics.Status.RUN);
+            } else {
+                metrics.finish(StageMetrics.Status.SKIPPED);
+            }
+            task.complete();
+        } catch (Exception e) {
+            metrics.finish(StageMetrics.Status.FAILED);
+            throw e;
+        }
+    }
+
+    private void writeReport(BuildReport report) {
+        report.logSummary(getLog());
+        try {
+            mkdirs(buildReportFile.getAbsoluteFile().getParentFile());
+            report.write(buildReportFile);
+            getLog().info("Build report written to: [" + buildReportFile.getPath() + "]");
+        } catch (IOException e) {
+            // report must not fail the build or hide its error
+            getLog().warn("Cannot write build report: [" + buildReportFile.getPath() + "]", e);
         }
     }
 
@@ -87,63 +307,167 @@ public class InstallerMojo extends SettingsMojo {
         mkdirs(izpackDir);
         mkdirs(distDir);
         File bin = mkdirs(new File(distDir, "bin"));
-        File lib = mkdirs(new File(distDir, "lib"));
+        File distLib = new File(distDir, "lib");
+        // in shared store mode jars are staged outside of dist and only published jars are installed
+        if(sharedStore) deleteJars(distLib);
+        File lib = mkdirs(sharedStore ? new File(izpackDir, "lib") : distLib);
         File uninstall = mkdirs(new File(distDir, "uninstall"));
         mkdirs(new File(distDir, "temp"));
         mkdirs(new File(distDir, prunsrvLogPath));
         return new Dirs(bin, lib, uninstall);
     }
 
-    private void copyBin(File binDir) throws IOException {
+    private void writeReleaseManifest() throws IOException {
+        mkdirs(releaseManifestFile.getAbsoluteFile().getParentFile());
+        DistManifest.write(releaseManifest(), releaseManifestFile);
+        getLog().info("Release manifest written to: [" + releaseManifestFile.getPath() + "]");
+    }
+
+    private SharedStore sharedStore() {
+        return new SharedStore(sharedStoreDir(), staging);
+    }
+
+    private String runtimeKey() throws IOException {
+        if(!jlinkRuntime) return SharedStore.runtimeKey(jreDir, "");
+        StringBuilder extra = new StringBuilder().append(jlinkModules).append(jlinkAdditionalModules).append(jlinkOptions);
+        // detected modules depend on jars
+        if(null == jlinkModules || jlinkModules.isEmpty()) {
+            for(File fi : runtimeJars()) {
+                extra.append(fi.getName());
+            }
+        }
+        return SharedStore.runtimeKey(jlinkJdkDir, extra.toString());
+    }
+
+    private Fingerprint appDataFingerprint(IncrementalBuild build) throws IOException {
+        Fingerprint fp = build.fingerprint();
+        for(String dir : appDataDirs) {
+            fp.addTree(new File(dir));
+        }
+        return fp;
+    }
+
+    private File[] appDataOutputs() {
+        File[] res = new File[appDataDirs.size()];
+        for(int i = 0; i < res.length; i++) {
+            res[i] = new File(distDir, new File(appDataDirs.get(i)).getName());
+        }
+        return res;
+    }
+
+    private Fingerprint libsFingerprint(IncrementalBuild build) throws IOException {
+        Fingerprint fp = build.fingerprint();
+        if(mergedClasspath) {
+            fp.add(mergedJarFile).add(String.valueOf(mergeRules)).add(String.valueOf(mergeConflictsFail));
+        }
+        for(File fi : mergedClasspath ? runtimeJars() : artifactFiles()) {
+            fp.addFile(fi);
+        }
+        return fp;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<File> artifactFiles() {
+        SortedMap<String, File> sorted = new TreeMap<String, File>();
+        Set<Artifact> artifacts = project.getArtifacts();
+        for(Artifact ar : artifacts) {
+            sorted.put(ar.getFile().getAbsolutePath(), ar.getFile());
+        }
+        return sorted.values();
+    }
+
+    private Fingerprint jlinkFingerprint(IncrementalBuild build) throws IOException {
+        Fingerprint fp = build.fingerprint().add(jlinkJdkDir.getAbsolutePath()).add(String.valueOf(jlinkModules))
+                .add(String.valueOf(jlinkAdditionalModules)).add(jlinkOptions).addTree(jlinkModulePath());
+        for(File fi : runtimeJars()) {
+            fp.addFile(fi);
+        }
+        return fp;
+    }
+
+    @SuppressWarnings("unchecked")
+    private File[] libsOutputs(File libDir) {
+        if(mergedClasspath) return new File[]{new File(libDir, mergedJarFile)};
+        Set<Artifact> artifacts = project.getArtifacts();
+        List<File> res = new ArrayList<File>();
+        for(Artifact ar : artifacts) {
+            res.add(new File(libDir, ar.getFile().getName()));
+        }
+        return res.toArray(new File[res.size()]);
+    }
+
+    // izpack.xml embeds additional packs definition
+    private Fingerprint izpackFingerprint(IncrementalBuild build, String settings) throws IOException {
+        Fingerprint fp = build.fingerprint().add(settings).addResources("classpath:/izpack/*");
+        if(null != izpackAdditionalPacksPath) fp.addResource(izpackAdditionalPacksPath);
+        return fp;
+    }
+
+    private Fingerprint izpackResourcesFingerprint(IncrementalBuild build, String settings) throws IOException {
+        Fingerprint fp = build.fingerprint().add(settings)
+                .addResource(izpackFrameIconPath).addResource(izpackHelloIconPath)
+                .addResource("classpath:/izpack/xxx.xml").addResource("classpath:/izpack/xxx.gif");
+        if (null != izpackAdditionalResourcePaths) {
+            for (String re : izpackAdditionalResourcePaths) {
+                fp.addResource(re);
+            }
+        }
+        return fp;
+    }
+
+    private void copyBin(File binDir, StageMetrics metrics) throws IOException {
         {
             Resource[] resources = RESOURCE_RESOLVER.getResources("classpath:/bin/*");
             List<Resource> list = asList(resources);
-            List<File> copied = Lists.transform(list, new FtlCopyFunction(binDir));
-            fireTransform(copied);
+            transformParallel(list, new FtlCopyFunction(binDir, metrics));
         }
         {
             File daemonDir = new File(binDir, "java-daemon");
             Resource[] daemon = RESOURCE_RESOLVER.getResources("classpath:/bin/java-daemon/*");
             List<Resource> daemonList = asList(daemon);
-            List<File> daemonCopied = Lists.transform(daemonList, new CopyFunction(daemonDir));
+            List<File> daemonCopied = Lists.transform(daemonList, new CopyFunction(daemonDir, metrics));
             fireTransform(daemonCopied);
         }
     }
 
-    private void copyIzpack() throws IOException {
+    private void copyIzpack(StageMetrics metrics) throws IOException {
         Resource[] resources = RESOURCE_RESOLVER.getResources("classpath:/izpack/*");
         List<Resource> list = asList(resources);
-        List<File> copied = Lists.transform(list, new FtlCopyFunction(izpackDir));
-        fireTransform(copied);
-        writeStringToFile(new File(izpackDir, "default-install-dir.txt"), izpackDefaultInstallDir, UTF8);
+        transformParallel(list, new FtlCopyFunction(izpackDir, metrics));
+        File installDirFile = new File(izpackDir, "default-install-dir.txt");
+        writeStringToFile(installDirFile, izpackDefaultInstallDir, UTF8);
+        metrics.written(installDirFile);
     }
 
-    private void copyUninstall(File uninstallDir) {
-        if(use64BitJre && !useX86LaunchersForX64Installer) {
-            copyResourceToDir(installLauncher64Path, izpackDir);
-            copyResourceToDir(uninstallLauncher64Path, uninstallDir);
-        } else {
-            copyResourceToDir(installLauncher32Path, izpackDir);
-            copyResourceToDir(uninstallLauncher32Path, uninstallDir);
-        }
+    private void copyUninstall(File uninstallDir, StageMetrics metrics) {
+        metrics.copied(copyResourceToDir(installLauncherPath(), izpackDir));
+        metrics.copied(copyResourceToDir(uninstallLauncherPath(), uninstallDir));
+    }
+
+    private String installLauncherPath() {
+        return use64BitJre && !useX86LaunchersForX64Installer ? installLauncher64Path : installLauncher32Path;
+    }
+
+    private String uninstallLauncherPath() {
+        return use64BitJre && !useX86LaunchersForX64Installer ? uninstallLauncher64Path : uninstallLauncher32Path;
     }
 
-    private void copyPrunsrv(File binDir) throws IOException {
+    private void copyPrunsrv(File binDir, StageMetrics metrics) throws IOException {
         Resource[] resources = RESOURCE_RESOLVER.getResources("classpath:/prunsrv/*");
         List<Resource> list = asList(resources);
         Predicate<Resource> notExe = Predicates.not(new PostfixPredicate(".exe"));
         Iterable<Resource> filtered = Iterables.filter(list, notExe);
-        Iterable<File> copied = Iterables.transform(filtered, new FtlCopyFunction(binDir, prunsrvScriptsEncoding));
-        fireTransform(copied);
+        transformParallel(filtered, new FtlCopyFunction(binDir, prunsrvScriptsEncoding, metrics));
         String prunsrvPath = use64BitJre ? "classpath:/prunsrv/prunsrv_x86_64.exe" : "classpath:/prunsrv/prunsrv_x86_32.exe";
         File prunsrvTarget = new File(binDir, "prunsrv.exe");
         copyResource(prunsrvPath, prunsrvTarget);
+        metrics.copied(prunsrvTarget);
     }
 
-    private void copyAppData() throws IOException {
+    private void copyAppData(StageMetrics metrics) throws IOException {
         for(String dir : appDataDirs) {
             File source = new File(dir);
-            copyDirectoryToDirectory(source, distDir);
+            metrics.staged(staging.copyDirectoryToDirectory(source, distDir));
         }
     }
 
@@ -153,129 +477,306 @@ public class InstallerMojo extends SettingsMojo {
         fireTransform(marked);
     }
 
-    @SuppressWarnings("unchecked")
-    private void copyLibs(File libDir) throws IOException {
-        Set<Artifact> artifacts = project.getArtifacts();
-        for(Artifact ar : artifacts) {
-            copyFileToDirectory(ar.getFile(), libDir);
+    private void copyLibs(File libDir, StageMetrics metrics) throws IOException {
+        // jars left from the build in the other mode must not get into classpath jar
+        File merged = new File(libDir, mergedJarFile);
+        if(mergedClasspath) {
+            deleteJars(libDir);
+            mergeLibs(merged, metrics);
+            return;
+        }
+        FileUtils.deleteQuietly(merged);
+        Set<String> names = new HashSet<String>();
+        for(File fi : artifactFiles()) {
+            metrics.staged(staging.copyFileToDirectory(fi, libDir));
+            names.add(fi.getName());
+        }
+        // jars of previous dependency versions must not stay in lib
+        File[] jars = libDir.listFiles((FileFilter) new SuffixFileFilter(".jar"));
+        if(null == jars) return;
+        for(File fi : jars) {
+            if(!names.contains(fi.getName())) FileUtils.forceDelete(fi);
+        }
+    }
+
+    private void mergeLibs(File merged, StageMetrics metrics) throws IOException {
+        FileUtils.forceMkdir(merged.getParentFile());
+        List<File> jars = runtimeJars();
+        new JarMerger(mergeRules, mergeConflictsFail, getLog()).merge(jars, merged);
+        for(File fi : jars) {
+            metrics.read(fi);
+        }
+        metrics.written(merged);
+    }
+
+    private static void deleteJars(File dir) throws IOException {
+        File[] jars = dir.listFiles((FileFilter) new SuffixFileFilter(".jar"));
+        if(null == jars) return;
+        for(File fi : jars) {
+            FileUtils.forceDelete(fi);
         }
     }
 
-    private void copyLauncher(File binDir) throws IOException {
-        final File dest = new File(binDir, prunsrvLauncherJarFile);
-        final File launcher;
+    private File launcherFile() {
         if(null == project.getArtifact().getFile()) {
             // unbinded build here
-            launcher = new File(project.getBasedir(), "target/" + project.getArtifactId() + "-" + project.getVersion() + ".jar");
+            return new File(project.getBasedir(), "target/" + project.getArtifactId() + "-" + project.getVersion() + ".jar");
+        } else {
+            return project.getArtifact().getFile();
+        }
+    }
+
+    private void linkJRE(File innerJre, StageMetrics metrics) throws IOException {
+        List<String> options = asList(StringUtils.split(jlinkOptions));
+        JlinkRuntime jlink = new JlinkRuntime(jlinkJdkDir, jlinkModulePath(), options, getLog());
+        List<File> jars = runtimeJars();
+        Set<String> modules = new TreeSet<String>();
+        if(null != jlinkModules && !jlinkModules.isEmpty()) {
+            modules.addAll(jlinkModules);
         } else {
-            launcher = project.getArtifact().getFile();
+            modules.addAll(jlink.detectModules(jars));
+        }
+        if(null != jlinkAdditionalModules) modules.addAll(jlinkAdditionalModules);
+        jlink.link(modules, innerJre);
+        jlink.logSizeReduction(innerJre, jreDir);
+        metrics.read(jlinkModulePath());
+        for(File fi : jars) {
+            metrics.read(fi);
+        }
+        metrics.written(innerJre);
+    }
+
+    private void writeClasspathJar(Dirs dirs, File classpathJar, StageMetrics metrics) throws IOException {
+        LinkedHashMap<String, File> jars = new LinkedHashMap<String, File>();
+        File launcher = new File(dirs.bin, prunsrvLauncherJarFile);
+        // merged jar already contains launcher classes
+        if(!mergedClasspath) jars.put(launcher.getName(), launcher);
+        if(sharedStore) {
+            // store is placed next to application directory
+            for(Map.Entry<String, File> en : sharedStore().jars().entrySet()) {
+                jars.put("../../" + sharedStoreName + "/" + en.getKey(), en.getValue());
+            }
         }
-        copyFile(launcher, dest);
+        if(!sharedStore) {
+            // built from artifacts, not from lib listing that may contain foreign files,
+            // sorted by name to not depend on local repository paths
+            SortedMap<String, File> libs = new TreeMap<String, File>();
+            if(mergedClasspath) {
+                libs.put(mergedJarFile, new File(dirs.lib, mergedJarFile));
+            } else {
+                for(File fi : artifactFiles()) {
+                    libs.put(fi.getName(), new File(dirs.lib, fi.getName()));
+                }
+            }
+            for(Map.Entry<String, File> en : libs.entrySet()) {
+                jars.put("../" + dirs.lib.getName() + "/" + en.getKey(), en.getValue());
+            }
+        }
+        ClasspathJar.write(classpathJar, jars, ClasspathJar.readMainClass(launcher));
+        for(File fi : jars.values()) {
+            metrics.read(fi);
+        }
+        metrics.written(classpathJar);
+    }
+
+    private File jlinkModulePath() {
+        return null != jlinkModulePath ? jlinkModulePath : new File(jreDir, "jmods");
     }
 
-    // copy JRE to use loose pack feature
-    private File copyJRE() throws IOException {
-        File innerJre = new File(izpackDir, "jre");
-        copyDirectory(jreDir, innerJre);
-        return innerJre;
+    // launcher jar and project artifacts including StandardLauncher from common library
+    private List<File> runtimeJars() {
+        List<File> res = new ArrayList<File>();
+        res.add(launcherFile());
+        res.addAll(artifactFiles());
+        return res;
     }
 
-    private void copyIzPackResources() {
-        copyResourceToDir(izpackFrameIconPath, izpackDir);
-        copyResourceToDir(izpackHelloIconPath, izpackDir);
+    private void copyIzPackResources(StageMetrics metrics) {
+        metrics.copied(copyResourceToDir(izpackFrameIconPath, izpackDir));
+        metrics.copied(copyResourceToDir(izpackHelloIconPath, izpackDir));
         File lpdir = new File(izpackDir, "bin/langpacks/installer");
         File flagdir = new File(izpackDir, "bin/langpacks/flags");
-        copyResourceToDir("classpath:/izpack/xxx.xml", lpdir);
-        copyResourceToDir("classpath:/izpack/xxx.gif", flagdir);
+        metrics.copied(copyResourceToDir("classpath:/izpack/xxx.xml", lpdir));
+        metrics.copied(copyResourceToDir("classpath:/izpack/xxx.gif", flagdir));
         if (null != izpackAdditionalResourcePaths) {
             File addres = new File(izpackDir, "addres");
             for (String re : izpackAdditionalResourcePaths) {
-                copyResourceToDir(re, addres);
+                metrics.copied(copyResourceToDir(re, addres));
             }
         }
     }
 
     private void runIzPackCompiler() throws Exception {
-        PrintStream console = System.out;
+        // compiler output goes to file through listener, global System.out is shared with concurrent stages
+        PrintStream ps = new PrintStream(openOutputStream(buildOutputFile), true, "UTF-8");
         try {
-            // redirect izPack output to file
-            PrintStream ps = new PrintStream(openOutputStream(buildOutputFile), true, "UTF-8");
-            System.setOut(ps);
             File installFile = null != installConfigFile ? installConfigFile : new File(izpackDir, "izpack.xml");
-            CompilerConfig compilerConfig = new CompilerConfig(installFile.getAbsolutePath(), izpackDir.getAbsolutePath(), "standard", izpackOutputFile.getAbsolutePath(), izpackCompress, null);
+            CompilerConfig compilerConfig = new CompilerConfig(installFile.getAbsolutePath(), izpackDir.getAbsolutePath(),
+                    "standard", izpackOutputFile.getAbsolutePath(), izpackCompress, new FilePackagerListener(ps));
             CompilerConfig.setIzpackHome(izpackDir.getAbsolutePath());
             compilerConfig.executeCompiler();
         } finally {
-            System.setOut(console);
+            ps.close();
+        }
+    }
+
+    private ZipArchiveEntry streamIzPackCompiler(String entryName, int level, ZipArchiveOutputStream zip) throws Exception {
+        ZipArchiveEntry entry = new ZipArchiveEntry(entryName);
+        entry.setTime(System.currentTimeMillis());
+        // jar contents are already compressed by packager
+        entry.setMethod(ZipArchiveEntry.STORED);
+        zip.putArchiveEntry(entry);
+        StreamingPackager.Target target = StreamingPackager.bind(zip, level);
+        try {
+            runIzPackCompiler();
+        } finally {
+            StreamingPackager.unbind();
+        }
+        if(!target.isUsed()) {
+            // custom install config without streaming packager
+            FileUtils.copyFile(izpackOutputFile, zip);
+            if(!izpackOutputFile.delete()) izpackOutputFile.deleteOnExit();
         }
+        zip.closeArchiveEntry();
+        return entry;
     }
 
-    private void packInstaller(File jre) throws IOException {
-        ZipOutputStream zip = null;
+    private void packInstaller(File jre, File jreSegment, CompressionPolicy policy, StageMetrics metrics) throws Exception {
+        CompressionStats stats = metrics.getCompression();
+        ZipArchiveOutputStream zip = null;
         InputStream resStream = null;
         try {
-            OutputStream out = openOutputStream(installerOutputFile);
+            mkdirs(installerOutputFile.getAbsoluteFile().getParentFile());
             String prefix = getBaseName(installerOutputFile.getPath());
-            zip = new ZipOutputStream(out);
-            zip.putNextEntry(new ZipEntry(prefix + "/install.jar"));
-            FileUtils.copyFile(izpackOutputFile, zip);
-            zip.putNextEntry(new ZipEntry(prefix + "/install.exe"));
-            if(use64BitJre && !useX86LaunchersForX64Installer) {
-                resStream = RESOURCE_LOADER.getResource(installLauncher64Path).getInputStream();
+            zip = new ZipArchiveOutputStream(installerOutputFile);
+            if(keepIzpackOutputFile) {
+                // packs of 'raw' installer jar are not compressed
+                Archives.zipFile(izpackOutputFile, prefix + "/install.jar", zip,
+                        !"raw".equals(izpackCompress), policy.getLevel(), stats);
             } else {
-                resStream = RESOURCE_LOADER.getResource(installLauncher32Path).getInputStream();
+                long packStart = System.nanoTime();
+                ZipArchiveEntry installJar = streamIzPackCompiler(prefix + "/install.jar", policy.getLevel(), zip);
+                stats.add(CompressionStats.IZPACK, sizeOfDirectory(distDir), installJar.getCompressedSize(), System.nanoTime() - packStart);
             }
+            long start = System.nanoTime();
+            ZipArchiveEntry exe = new ZipArchiveEntry(prefix + "/install.exe");
+            exe.setMethod(ZipArchiveEntry.DEFLATED);
+            zip.setLevel(policy.getLevel());
+            zip.putArchiveEntry(exe);
+            resStream = RESOURCE_LOADER.getResource(installLauncherPath()).getInputStream();
             copyLarge(resStream, zip);
-            ZipFunction zipper = new ZipFunction(jre, prefix + "/jre", zip);
-            Collection<File> files = listFiles(jre, true);
-            Collection<String> zipped = Collections2.transform(files, zipper);
-            fireTransform(zipped);
+            zip.closeArchiveEntry();
+            stats.add(CompressionStats.DEFLATE, exe.getSize(), exe.getCompressedSize(), System.nanoTime() - start);
+            if(null != jreSegment) {
+                // already compressed entries
+                start = System.nanoTime();
+                Archives.copyRaw(jreSegment, prefix + "/jre", zip);
+                long[] cached = Archives.uncompressedSize(jreSegment);
+                stats.add(CompressionStats.CACHED, cached[1], jreSegment.length(), System.nanoTime() - start);
+            } else {
+                Archives.zipTree(jre, prefix + "/jre", zip, effectiveParallelism(), policy, stats);
+            }
+            zip.finish();
             getLog().info("Installer written to: [" + installerOutputFile.getPath() + "]");
         } finally {
             closeQuietly(zip);
             closeQuietly(resStream);
         }
+        if(!keepIzpackOutputFile) metrics.read(distDir);
+        long[] archived = Archives.uncompressedSize(installerOutputFile);
+        metrics.read(archived[0], archived[1]);
+        metrics.written(installerOutputFile);
+        metrics.compressed(archived[1], installerOutputFile.length());
     }
 
-    private void packDist() throws IOException {
+    private void packDist(StageMetrics metrics) throws IOException {
+        DistCompression compression = DistCompression.of(distCompression);
+        if(!compression.matches(distOutputFile.getName())) getLog().warn("Dist file name: [" + distOutputFile.getName() +
+                "] does not match compression: [" + compression.getId() + "], expected extension: [" + compression.getExtension() + "]");
+        long start = System.nanoTime();
         TarArchiveOutputStream tar = null;
+        CountingOutputStream counting;
         try {
             OutputStream out = openOutputStream(distOutputFile);
-            GZIPOutputStream gzip = new GZIPOutputStream(out);
-            String prefix = getBaseName(distOutputFile.getPath());
-            tar = new TarArchiveOutputStream(gzip);
+            int level = distCompressionLevel;
+            // gzip follows installer level unless set explicitly
+            if(level < 0 && DistCompression.GZIP == compression) level = compressionLevel;
+            OutputStream compressed = compression.open(out, level, effectiveParallelism());
+            String prefix = compression.baseName(distOutputFile.getName());
+            counting = new CountingOutputStream(compressed);
+            tar = new TarArchiveOutputStream(counting);
             TarFunction tarfun = new TarFunction(distDir, prefix, tar);
             IOFileFilter uninstallFilter = new NotFileFilter(new NameFileFilter("uninstall"));
             Collection<File> files = listFiles(distDir, TrueFileFilter.TRUE, uninstallFilter, true);
             Collection<String> tarred = Collections2.transform(files, tarfun);
             fireTransform(tarred);
+            if(sharedStore) {
+                // archive contains store and application directories side by side
+                Collection<File> stored = listFiles(sharedStoreDir(), TrueFileFilter.TRUE, TrueFileFilter.TRUE, true);
+                fireTransform(Collections2.transform(stored, new TarFunction(sharedStoreDir(), sharedStoreName, tar)));
+                metrics.read(sharedStoreDir());
+            }
+            // pending compressed blocks are written on close, its errors must not be swallowed
+            tar.close();
+            for(File fi : files) {
+                if(fi.isFile()) metrics.read(fi);
+            }
         } finally {
             IOUtils.closeQuietly(tar);
         }
+        metrics.written(distOutputFile);
+        metrics.compressed(counting.getByteCount(), distOutputFile.length());
+        metrics.getCompression().add(compression.getId(), counting.getByteCount(), distOutputFile.length(),
+                System.nanoTime() - start);
+    }
+
+    // templates are independent from each other
+    private void transformParallel(Iterable<Resource> resources, final Function<Resource, File> fun) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(effectiveParallelism(),
+                new ParallelZipWriter.DaemonThreadFactory("template-render"));
+        try {
+            List<Future<File>> futures = new ArrayList<Future<File>>();
+            for(final Resource re : resources) {
+                futures.add(executor.submit(new Callable<File>() {
+                    public File call() {
+                        return fun.apply(re);
+                    }
+                }));
+            }
+            for(Future<File> fu : futures) {
+                ParallelZipWriter.get(fu);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     private class CopyFunction implements Function<Resource, File> {
         protected final File dir;
+        protected final StageMetrics metrics;
 
-        private CopyFunction(File dir) {
+        private CopyFunction(File dir, StageMetrics metrics) {
             this.dir = dir;
+            this.metrics = metrics;
         }
 
         public File apply(Resource input) {
             File file = new File(dir, input.getFilename());
-            return copyResource(input, file);
+            copyResource(input, file);
+            metrics.copied(file);
+            return file;
         }
     }
 
     private class FtlCopyFunction extends CopyFunction {
         private final String ftlOutputEncoding;
 
-        private FtlCopyFunction(File dir) {
-            this(dir, UTF8);
+        private FtlCopyFunction(File dir, StageMetrics metrics) {
+            this(dir, UTF8, metrics);
         }
 
-        private FtlCopyFunction(File dir, String ftlOutputEncoding) {
-            super(dir);
+        private FtlCopyFunction(File dir, String ftlOutputEncoding, StageMetrics metrics) {
+            super(dir, metrics);
             this.ftlOutputEncoding = ftlOutputEncoding;
         }
 
@@ -283,16 +784,13 @@ public class InstallerMojo extends SettingsMojo {
             String name = input.getFilename();
             final File file;
             if(name.endsWith(".ftl")) {
-                OutputStream out = null;
+                file = new File(dir, name.substring(0, name.length() - 4));
                 try {
-                    file = new File(dir, name.substring(0, name.length() - 4));
-                    OutputStream os = openOutputStream(file);
-                    freemarker.process(input.getInputStream(), InstallerMojo.this, os, ftlOutputEncoding);
+                    metrics.read(1, templates.render(name, input.getInputStream(), file, ftlOutputEncoding));
                 } catch (IOException e) {
                     throw new UnhandledException(e);
-                } finally {
-                    closeQuietly(out);
                 }
+                metrics.written(file);
             } else {
                 file = super.apply(input);
             }
@@ -318,6 +816,34 @@ public class InstallerMojo extends SettingsMojo {
         }
     }
 
+    private static class FilePackagerListener implements PackagerListener {
+        private final PrintStream out;
+
+        private FilePackagerListener(PrintStream out) {
+            this.out = out;
+        }
+
+        public void packagerMsg(String info) {
+            packagerMsg(info, MSG_INFO);
+        }
+
+        public void packagerMsg(String info, int priority) {
+            switch(priority) {
+                case MSG_ERR: out.println("[ ERROR ] " + info); break;
+                case MSG_WARN: out.println("[ WARNING ] " + info); break;
+                default: out.println(info);
+            }
+        }
+
+        public void packagerStart() {
+            out.println("[ Begin ]");
+        }
+
+        public void packagerStop() {
+            out.println("[ End ]");
+        }
+    }
+
     private class Dirs {
         private final File bin;
         private final File lib;
@@ -329,4 +855,22 @@ public class InstallerMojo extends SettingsMojo {
             this.uninstall = uninstall;
         }
     }
+
+    private abstract class StageTask {
+        private final BuildStage stage;
+        private final File[] outputs;
+
+        private StageTask(BuildStage stage, File... outputs) {
+            this.stage = stage;
+            this.outputs = outputs;
+        }
+
+        abstract Fingerprint fingerprint() throws IOException;
+
+        abstract void run(StageMetrics metrics) throws Exception;
+
+        // called after stage is run or skipped
+        void complete() throws Exception {
+        }
+    }
 }
@@ -0,0 +1,316 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Merges jars into a single uncompressed jar, so JVM has to open and index only one file
+ * on startup. Entries with the same name are merged according to rules matched by entry name,
+ * by default the first entry in classpath order wins and entries with the same name
+ * but different CRC or size are reported as conflicts.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class JarMerger {
+    /**
+     * How to merge entries with the same name
+     */
+    public enum Strategy {
+        /** first entry in classpath order is kept, different contents are reported as conflict */
+        FIRST,
+        /** contents are concatenated */
+        CONCAT,
+        /** unique lines are concatenated, used for service files */
+        LINES,
+        /** entry is not written */
+        SKIP,
+        /** entries with different contents fail the merge */
+        FAIL
+    }
+
+    private static final int MAX_REPORTED_CONFLICTS = 20;
+    private static final Map<String, Strategy> DEFAULT_RULES = new LinkedHashMap<String, Strategy>();
+    static {
+        DEFAULT_RULES.put(JarFile.MANIFEST_NAME, Strategy.SKIP);
+        DEFAULT_RULES.put("META-INF/INDEX.LIST", Strategy.SKIP);
+        DEFAULT_RULES.put("META-INF/*.SF", Strategy.SKIP);
+        DEFAULT_RULES.put("META-INF/*.DSA", Strategy.SKIP);
+        DEFAULT_RULES.put("META-INF/*.RSA", Strategy.SKIP);
+        DEFAULT_RULES.put("META-INF/*.EC", Strategy.SKIP);
+        DEFAULT_RULES.put("module-info.class", Strategy.SKIP);
+        DEFAULT_RULES.put("META-INF/versions/*/module-info.class", Strategy.SKIP);
+        DEFAULT_RULES.put("META-INF/services/*", Strategy.LINES);
+        DEFAULT_RULES.put("META-INF/spring.handlers", Strategy.LINES);
+        DEFAULT_RULES.put("META-INF/spring.schemas", Strategy.LINES);
+        DEFAULT_RULES.put("META-INF/LICENSE*", Strategy.CONCAT);
+        DEFAULT_RULES.put("META-INF/NOTICE*", Strategy.CONCAT);
+    }
+
+    private final Map<String, Strategy> rules = new LinkedHashMap<String, Strategy>();
+    private final boolean failOnConflict;
+    private final Log log;
+
+    /**
+     * @param customRules rules in 'pattern=strategy' format, e.g. 'META-INF/spring.factories=concat',
+     *                    patterns support '*' and '?' wildcards, custom rules take precedence over default ones
+     * @param failOnConflict whether to fail on entries with different contents merged with 'first' strategy
+     * @param log maven log
+     */
+    public JarMerger(List<String> customRules, boolean failOnConflict, Log log) {
+        if(null != customRules) {
+            for(String ru : customRules) {
+                int eq = ru.lastIndexOf('=');
+                if(eq <= 0) throw new IllegalArgumentException("Invalid merge rule: [" + ru + "], must be 'pattern=strategy'");
+                rules.put(ru.substring(0, eq).trim(), Strategy.valueOf(ru.substring(eq + 1).trim().toUpperCase(Locale.ENGLISH)));
+            }
+        }
+        for(Map.Entry<String, Strategy> en : DEFAULT_RULES.entrySet()) {
+            if(!rules.containsKey(en.getKey())) rules.put(en.getKey(), en.getValue());
+        }
+        this.failOnConflict = failOnConflict;
+        this.log = log;
+    }
+
+    /**
+     * Merges jars, entries are copied to target as they are read, only entries
+     * merged with 'concat' and 'lines' strategies are kept in memory
+     *
+     * @param jars jars in classpath order
+     * @param target merged jar, all entries are stored uncompressed
+     * @return number of conflicting entries
+     * @throws IOException on IO error or on conflict if merge must fail on conflicts
+     */
+    public int merge(List<File> jars, File target) throws IOException {
+        boolean multiRelease = false;
+        for(File jar : jars) {
+            multiRelease |= isMultiRelease(jar);
+        }
+        Map<String, Written> written = new HashMap<String, Written>();
+        Map<String, Merged> merged = new LinkedHashMap<String, Merged>();
+        Set<String> dirs = new HashSet<String>();
+        List<String> conflicts = new ArrayList<String>();
+        ZipArchiveOutputStream zip = null;
+        try {
+            zip = new ZipArchiveOutputStream(target);
+            // seekable output, sizes and checksums of stored entries are written after data
+            zip.setMethod(ZipArchiveEntry.STORED);
+            writeEntry(zip, "META-INF/", null, System.currentTimeMillis());
+            dirs.add("META-INF/");
+            writeEntry(zip, JarFile.MANIFEST_NAME, manifest(multiRelease), System.currentTimeMillis());
+            for(File jar : jars) {
+                copy(jar, zip, written, merged, dirs, conflicts);
+            }
+            for(Map.Entry<String, Merged> en : merged.entrySet()) {
+                writeEntry(zip, en.getKey(), en.getValue().data(), en.getValue().time);
+            }
+            zip.finish();
+            zip.close();
+            reportConflicts(conflicts);
+        } catch(IOException e) {
+            closeQuietly(zip);
+            FileUtils.deleteQuietly(target);
+            throw e;
+        } finally {
+            closeQuietly(zip);
+        }
+        log.info("Merged: [" + jars.size() + "] jars into: [" + target.getPath() + "], " +
+                "entries: [" + (written.size() + merged.size()) + "], conflicts: [" + conflicts.size() + "]");
+        return conflicts.size();
+    }
+
+    private void copy(File jar, ZipArchiveOutputStream zip, Map<String, Written> written, Map<String, Merged> merged,
+                      Set<String> dirs, List<String> conflicts) throws IOException {
+        ZipFile zf = null;
+        try {
+            zf = new ZipFile(jar);
+            Enumeration<ZipArchiveEntry> entries = zf.getEntriesInPhysicalOrder();
+            while(entries.hasMoreElements()) {
+                ZipArchiveEntry en = entries.nextElement();
+                String name = en.getName();
+                if(en.isDirectory()) {
+                    if(dirs.add(name)) writeEntry(zip, name, null, -1);
+                    continue;
+                }
+                Strategy strategy = strategy(name);
+                switch(strategy) {
+                    case SKIP:
+                        break;
+                    case CONCAT:
+                    case LINES:
+                        Merged existing = merged.get(name);
+                        if(null == existing) merged.put(name, new Merged(read(zf, en), en.getTime(), strategy));
+                        else existing.parts.add(read(zf, en));
+                        break;
+                    default:
+                        Written first = written.get(name);
+                        if(null == first) {
+                            written.put(name, copyEntry(zf, en, zip, jar));
+                        } else if(!first.sameAs(checksum(zf, en))) {
+                            String conflict = name + " in: [" + first.source.getName() + "] and: [" + jar.getName() + "]";
+                            if(Strategy.FAIL == strategy) throw new IOException("Conflicting entries: " + conflict);
+                            conflicts.add(conflict);
+                        }
+                }
+            }
+        } finally {
+            ZipFile.closeQuietly(zf);
+        }
+    }
+
+    private Strategy strategy(String name) {
+        for(Map.Entry<String, Strategy> en : rules.entrySet()) {
+            if(FilenameUtils.wildcardMatch(name, en.getKey())) return en.getValue();
+        }
+        return Strategy.FIRST;
+    }
+
+    private void reportConflicts(List<String> conflicts) throws IOException {
+        if(conflicts.isEmpty()) return;
+        for(int i = 0; i < conflicts.size() && i < MAX_REPORTED_CONFLICTS; i++) {
+            log.warn("Merge conflict, first entry is used: " + conflicts.get(i));
+        }
+        if(conflicts.size() > MAX_REPORTED_CONFLICTS) {
+            log.warn("Merge conflicts not shown: [" + (conflicts.size() - MAX_REPORTED_CONFLICTS) + "]");
+        }
+        if(failOnConflict) throw new IOException("Jars merge failed, conflicting entries: [" + conflicts.size() + "]");
+    }
+
+    private static Written copyEntry(ZipFile zf, ZipArchiveEntry en, ZipArchiveOutputStream zip, File source) throws IOException {
+        ZipArchiveEntry entry = new ZipArchiveEntry(en.getName());
+        if(en.getTime() >= 0) entry.setTime(en.getTime());
+        zip.putArchiveEntry(entry);
+        CheckedInputStream is = null;
+        try {
+            is = new CheckedInputStream(zf.getInputStream(en), new CRC32());
+            long size = IOUtils.copyLarge(is, zip);
+            zip.closeArchiveEntry();
+            return new Written(source, is.getChecksum().getValue(), size);
+        } finally {
+            closeQuietly(is);
+        }
+    }
+
+    private static void writeEntry(ZipArchiveOutputStream zip, String name, byte[] data, long time) throws IOException {
+        ZipArchiveEntry entry = new ZipArchiveEntry(name);
+        if(time >= 0) entry.setTime(time);
+        zip.putArchiveEntry(entry);
+        if(null != data) zip.write(data);
+        zip.closeArchiveEntry();
+    }
+
+    private static byte[] manifest(boolean multiRelease) throws IOException {
+        Manifest manifest = new Manifest();
+        Attributes attrs = manifest.getMainAttributes();
+        attrs.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        attrs.putValue("Created-By", "maven-windows-service-installer-plugin");
+        if(multiRelease) attrs.putValue("Multi-Release", "true");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        manifest.write(out);
+        return out.toByteArray();
+    }
+
+    private static boolean isMultiRelease(File jar) throws IOException {
+        JarFile jf = new JarFile(jar);
+        try {
+            Manifest manifest = jf.getManifest();
+            return null != manifest && "true".equalsIgnoreCase(manifest.getMainAttributes().getValue("Multi-Release"));
+        } finally {
+            jf.close();
+        }
+    }
+
+    private static byte[] read(ZipFile zf, ZipArchiveEntry en) throws IOException {
+        InputStream is = null;
+        try {
+            is = zf.getInputStream(en);
+            return IOUtils.toByteArray(is);
+        } finally {
+            closeQuietly(is);
+        }
+    }
+
+    // central directory values, entry is read only if they are missing
+    private static Written checksum(ZipFile zf, ZipArchiveEntry en) throws IOException {
+        if(en.getCrc() >= 0 && en.getSize() >= 0) return new Written(null, en.getCrc(), en.getSize());
+        CheckedInputStream is = null;
+        try {
+            is = new CheckedInputStream(zf.getInputStream(en), new CRC32());
+            long size = IOUtils.copyLarge(is, new NullOutputStream());
+            return new Written(null, is.getChecksum().getValue(), size);
+        } finally {
+            closeQuietly(is);
+        }
+    }
+
+    private static class Written {
+        private final File source;
+        private final long crc;
+        private final long size;
+
+        private Written(File source, long crc, long size) {
+            this.source = source;
+            this.crc = crc;
+            this.size = size;
+        }
+
+        private boolean sameAs(Written other) {
+            return crc == other.crc && size == other.size;
+        }
+    }
+
+    private static class Merged {
+        private final long time;
+        private final Strategy strategy;
+        private final List<byte[]> parts = new ArrayList<byte[]>();
+
+        private Merged(byte[] data, long time, Strategy strategy) {
+            this.time = time;
+            this.strategy = strategy;
+            parts.add(data);
+        }
+
+        private byte[] data() throws IOException {
+            if(1 == parts.size()) return parts.get(0);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            if(Strategy.LINES == strategy) {
+                Set<String> lines = new LinkedHashSet<String>();
+                for(byte[] pa : parts) {
+                    for(Object li : IOUtils.readLines(new ByteArrayInputStream(pa), "UTF-8")) {
+                        String line = ((String) li).trim();
+                        if(line.length() > 0) lines.add(line);
+                    }
+                }
+                for(String li : lines) {
+                    out.write((li + "\n").getBytes("UTF-8"));
+                }
+            } else {
+                for(byte[] pa : parts) {
+                    out.write(pa);
+                    if(pa.length > 0 && '\n' != pa[pa.length - 1]) out.write('\n');
+                }
+            }
+            return out.toByteArray();
+        }
+    }
+}
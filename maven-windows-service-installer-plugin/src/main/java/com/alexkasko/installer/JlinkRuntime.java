@@ -0,0 +1,109 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Builds trimmed runtime image with {@code jlink}, modules required by application
+ * are detected with {@code jdeps}. Both tools are taken from JDK 11 or later, linked modules
+ * are taken from module path that must belong to the JDK of the same version, it may be
+ * a JDK for another platform.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class JlinkRuntime {
+    private final File jdkDir;
+    private final File modulePath;
+    private final List<String> options;
+    private final Log log;
+
+    /**
+     * @param jdkDir JDK providing jdeps and jlink tools
+     * @param modulePath directory with jmods to link
+     * @param options additional jlink options, e.g. '--strip-debug'
+     * @param log maven log
+     */
+    public JlinkRuntime(File jdkDir, File modulePath, List<String> options, Log log) {
+        this.jdkDir = jdkDir;
+        this.modulePath = modulePath;
+        this.options = options;
+        this.log = log;
+    }
+
+    /**
+     * Detects platform modules used by jars with {@code jdeps --print-module-deps}
+     *
+     * @param jars application jars, analyzed together as a classpath
+     * @return sorted module names
+     * @throws IOException on jdeps error
+     */
+    public Set<String> detectModules(Collection<File> jars) throws IOException {
+        List<String> paths = new ArrayList<String>();
+        for(File fi : jars) {
+            paths.add(fi.getAbsolutePath());
+        }
+        List<String> command = new ArrayList<String>();
+        command.add(Processes.javaTool(jdkDir, "jdeps").getAbsolutePath());
+        command.addAll(asList("--print-module-deps", "--ignore-missing-deps", "--multi-release", "base"));
+        command.add("--class-path");
+        command.add(StringUtils.join(paths, File.pathSeparator));
+        command.addAll(paths);
+        String output = Processes.run(command, null);
+        // module list is printed on the last line after possible warnings
+        String[] lines = output.trim().split("\\r?\\n");
+        Set<String> res = new TreeSet<String>();
+        for(String mod : lines[lines.length - 1].split(",")) {
+            if(mod.trim().length() > 0) res.add(mod.trim());
+        }
+        if(res.isEmpty()) res.add("java.base");
+        return res;
+    }
+
+    /**
+     * Links runtime image, existing output directory is deleted
+     *
+     * @param modules modules to include
+     * @param output image directory
+     * @throws IOException on jlink error
+     */
+    public void link(Collection<String> modules, File output) throws IOException {
+        if(!modulePath.isDirectory()) throw new IOException("Invalid jlink module path: [" + modulePath.getAbsolutePath() + "], " +
+                "JDK 'jmods' directory is required");
+        FileUtils.deleteDirectory(output);
+        List<String> command = new ArrayList<String>();
+        command.add(Processes.javaTool(jdkDir, "jlink").getAbsolutePath());
+        command.addAll(asList("--module-path", modulePath.getAbsolutePath()));
+        command.addAll(asList("--add-modules", StringUtils.join(modules, ",")));
+        command.addAll(options);
+        command.addAll(asList("--output", output.getAbsolutePath()));
+        log.info("Linking runtime image with modules: " + modules);
+        Processes.run(command, null);
+    }
+
+    /**
+     * Logs runtime image size compared to full JRE
+     *
+     * @param image linked image
+     * @param fullJre JRE that would be bundled otherwise
+     */
+    public void logSizeReduction(File image, File fullJre) {
+        long imageSize = FileUtils.sizeOfDirectory(image);
+        long fullSize = FileUtils.sizeOfDirectory(fullJre);
+        double reduction = fullSize > 0 ? 100d * (fullSize - imageSize) / fullSize : 0;
+        log.info(String.format(Locale.US, "Runtime image size: %.1f MB, full JRE [%s] size: %.1f MB, reduction: %.1f%%",
+                imageSize / 1048576d, fullJre.getPath(), fullSize / 1048576d, reduction));
+    }
+}
@@ -0,0 +1,76 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+
+import static ru.concerteza.util.io.CtzIOUtils.mkdirs;
+
+/**
+ * Content-addressed cache of compressed JRE zip segments shared between builds.
+ * Segment is a zip with JRE files compressed according to compression policy, its entries
+ * are copied raw into installer zip, so the same JRE is compressed only once.
+ * Segments are keyed by policy too.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class JreCache {
+    // bump on changes of segment layout
+    private static final String FORMAT_VERSION = "2";
+
+    private final File cacheDir;
+    private final int parallelism;
+    private final CompressionPolicy policy;
+    private final Log log;
+
+    /**
+     * @param cacheDir cache directory, will be created if not exists
+     * @param parallelism number of threads used to compress new segments
+     * @param policy compression policy for new segments
+     * @param log maven log
+     */
+    public JreCache(File cacheDir, int parallelism, CompressionPolicy policy, Log log) {
+        this.cacheDir = cacheDir;
+        this.parallelism = parallelism;
+        this.policy = policy;
+        this.log = log;
+    }
+
+    /**
+     * Returns cached segment for JRE, creates it if it's not cached yet
+     *
+     * @param jreDir JRE directory
+     * @param key content hash of JRE directory
+     * @param stats per-strategy counters to update if segment is created
+     * @return segment zip file
+     * @throws IOException on IO error
+     */
+    public File segment(File jreDir, String key, CompressionStats stats) throws IOException {
+        File segment = new File(cacheDir, "jre-" + FORMAT_VERSION + "-" + policy.getId() + "-" + key + ".zip");
+        if(segment.isFile()) {
+            log.info("Using cached JRE segment: [" + segment.getAbsolutePath() + "]");
+            return segment;
+        }
+        log.info("Caching JRE segment: [" + segment.getAbsolutePath() + "]");
+        mkdirs(cacheDir);
+        // concurrent builds may write the same segment, publish it with rename
+        File tmp = new File(cacheDir, segment.getName() + "." + UUID.randomUUID() + ".tmp");
+        ZipArchiveOutputStream zip = null;
+        try {
+            zip = new ZipArchiveOutputStream(tmp);
+            Archives.zipTree(jreDir, "", zip, parallelism, policy, stats);
+            zip.finish();
+        } finally {
+            if(null != zip) zip.close();
+        }
+        if(!tmp.renameTo(segment)) {
+            if(!tmp.delete()) tmp.deleteOnExit();
+            if(!segment.isFile()) throw new IOException("Cannot write JRE segment: [" + segment.getAbsolutePath() + "]");
+        }
+        return segment;
+    }
+}
@@ -0,0 +1,78 @@
+package com.alexkasko.installer;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Named sets of GC, heap and thread stack options for the daemon JVM. Heap is sized
+ * as a percentage of memory available to JVM, so the same installer adapts to the host
+ * (or container limit) it is started on. Unrecognized options are ignored by older JREs,
+ * percentages are written as decimals because Java 8 rejects integer values for them.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public enum JvmProfile {
+    /**
+     * G1 with short pause goal and fixed pre-touched heap, no heap resizing at runtime
+     */
+    LOW_LATENCY("low-latency", 512, "-XX:+UseG1GC", "-XX:MaxGCPauseMillis=50", "-XX:+ParallelRefProcEnabled",
+            "-XX:InitialRAMPercentage=60.0", "-XX:MaxRAMPercentage=60.0", "-XX:+AlwaysPreTouch"),
+    /**
+     * Parallel collector with large heap growing on demand
+     */
+    THROUGHPUT("throughput", 1024, "-XX:+UseParallelGC",
+            "-XX:InitialRAMPercentage=25.0", "-XX:MaxRAMPercentage=75.0"),
+    /**
+     * Serial collector with small heap returning free memory eagerly, small code cache and thread stacks
+     */
+    SMALL_FOOTPRINT("small-footprint", 256, "-XX:+UseSerialGC", "-XX:InitialRAMPercentage=2.0", "-XX:MaxRAMPercentage=25.0",
+            "-XX:MinHeapFreeRatio=10", "-XX:MaxHeapFreeRatio=30", "-XX:ReservedCodeCacheSize=64m");
+
+    private final String id;
+    private final int stackKb;
+    private final List<String> options;
+
+    JvmProfile(String id, int stackKb, String... options) {
+        this.id = id;
+        this.stackKb = stackKb;
+        this.options = asList(options);
+    }
+
+    /**
+     * @param id profile name, e.g. 'low-latency'
+     * @return profile
+     * @throws IllegalArgumentException on unknown profile name
+     */
+    public static JvmProfile of(String id) {
+        for(JvmProfile pr : values()) {
+            if(pr.id.equalsIgnoreCase(id.trim())) return pr;
+        }
+        throw new IllegalArgumentException("Unknown JVM profile: [" + id + "], must be one of: " +
+                "'low-latency', 'throughput', 'small-footprint'");
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return thread stack size in kilobytes
+     */
+    public int getStackKb() {
+        return stackKb;
+    }
+
+    /**
+     * @param separator options separator, ';' for prunsrv and ' ' for shell scripts
+     * @return GC and heap options, thread stack size is not included
+     */
+    public String options(String separator) {
+        StringBuilder sb = new StringBuilder("-XX:+IgnoreUnrecognizedVMOptions");
+        for(String op : options) {
+            sb.append(separator).append(op);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,136 @@
+package com.alexkasko.installer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Gzip stream that compresses fixed-size blocks on multiple threads. Each block is written
+ * as a separate gzip member (RFC 1952, section 2.2), so output is a valid gzip file
+ * that is decompressed by gzip, tar and other standard tools into the same data.
+ * Output is deterministic for the same input, block size and level.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+    private static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+    // magic, deflate, no flags, zero mtime, no extra flags, OS unknown
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final OutputStream out;
+    private final int parallelism;
+    private final int level;
+    private final ExecutorService executor;
+    private final Deque<Future<byte[]>> inFlight = new ArrayDeque<Future<byte[]>>();
+    private byte[] block;
+    private int blockLen = 0;
+    private boolean anyBlockWritten = false;
+    private boolean closed = false;
+
+    /**
+     * @param out target stream, will be closed on close
+     * @param parallelism number of compressing threads
+     * @param level deflate level
+     */
+    public ParallelGzipOutputStream(OutputStream out, int parallelism, int level) {
+        if(parallelism < 1) throw new IllegalArgumentException("Invalid parallelism: [" + parallelism + "]");
+        this.out = out;
+        this.parallelism = parallelism;
+        this.level = level;
+        this.block = new byte[DEFAULT_BLOCK_SIZE];
+        this.executor = Executors.newFixedThreadPool(parallelism, new ParallelZipWriter.DaemonThreadFactory("gzip-deflate"));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if(closed) throw new IOException("Stream closed");
+        while(len > 0) {
+            int chunk = Math.min(len, block.length - blockLen);
+            System.arraycopy(b, off, block, blockLen, chunk);
+            blockLen += chunk;
+            off += chunk;
+            len -= chunk;
+            if(blockLen == block.length) submitBlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(closed) return;
+        try {
+            if(blockLen > 0 || !anyBlockWritten) submitBlock();
+            while(!inFlight.isEmpty()) {
+                out.write(ParallelZipWriter.get(inFlight.removeFirst()));
+            }
+            out.flush();
+        } finally {
+            closed = true;
+            for(Future<byte[]> fu : inFlight) {
+                fu.cancel(true);
+            }
+            executor.shutdownNow();
+            out.close();
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        if(inFlight.size() >= parallelism * 2) out.write(ParallelZipWriter.get(inFlight.removeFirst()));
+        inFlight.addLast(executor.submit(new MemberTask(block, blockLen, level)));
+        anyBlockWritten = true;
+        // buffer is owned by the task now
+        block = new byte[block.length];
+        blockLen = 0;
+    }
+
+    private static class MemberTask implements Callable<byte[]> {
+        private final byte[] data;
+        private final int len;
+        private final int level;
+
+        private MemberTask(byte[] data, int len, int level) {
+            this.data = data;
+            this.len = len;
+            this.level = level;
+        }
+
+        public byte[] call() throws IOException {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(len / 2 + 64);
+            baos.write(HEADER);
+            Deflater deflater = new Deflater(level, true);
+            try {
+                DeflaterOutputStream dos = new DeflaterOutputStream(baos, deflater, 64 * 1024);
+                dos.write(data, 0, len);
+                dos.finish();
+            } finally {
+                deflater.end();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, len);
+            writeIntLE(baos, (int) crc.getValue());
+            writeIntLE(baos, len);
+            return baos.toByteArray();
+        }
+
+        private static void writeIntLE(OutputStream os, int value) throws IOException {
+            os.write(value & 0xff);
+            os.write((value >> 8) & 0xff);
+            os.write((value >> 16) & 0xff);
+            os.write((value >> 24) & 0xff);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.DeferredFileOutputStream;
+import org.apache.commons.lang.UnhandledException;
+
+import java.io.*;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.apache.commons.io.IOUtils.copyLarge;
+
+/**
+ * Writes files into zip compressing them on multiple threads. Entries are compressed
+ * independently according to compression policy and then appended to zip without recompression
+ * in the original order, so output is the same as with sequential writing. Number of entries
+ * in flight is bounded, compressed data of large entries is buffered in temporary files.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class ParallelZipWriter {
+    private static final int MEMORY_THRESHOLD = 4 * 1024 * 1024;
+
+    private final int parallelism;
+    private final CompressionPolicy policy;
+    private final CompressionStats stats;
+
+    /**
+     * @param parallelism number of compressing threads
+     * @param level deflate level
+     */
+    public ParallelZipWriter(int parallelism, int level) {
+        this(parallelism, new CompressionPolicy(Deflater.DEFAULT_COMPRESSION == level ? 6 : level,
+                Collections.<String>emptyList()), new CompressionStats());
+    }
+
+    /**
+     * @param parallelism number of compressing threads
+     * @param policy compression policy
+     * @param stats per-strategy counters to update
+     */
+    public ParallelZipWriter(int parallelism, CompressionPolicy policy, CompressionStats stats) {
+        if(parallelism < 1) throw new IllegalArgumentException("Invalid parallelism: [" + parallelism + "]");
+        this.parallelism = parallelism;
+        this.policy = policy;
+        this.stats = stats;
+    }
+
+    /**
+     * Writes files into zip
+     *
+     * @param files files to write, keyed by entry names, written in iteration order
+     * @param zip zip stream
+     * @throws IOException on IO error
+     */
+    public void write(Map<String, File> files, ZipArchiveOutputStream zip) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new DaemonThreadFactory("zip-deflate"));
+        Deque<Future<CompressedEntry>> inFlight = new ArrayDeque<Future<CompressedEntry>>();
+        AtomicBoolean aborted = new AtomicBoolean(false);
+        try {
+            for(Map.Entry<String, File> en : files.entrySet()) {
+                if(inFlight.size() >= parallelism * 2) writeEntry(inFlight.removeFirst(), zip);
+                inFlight.addLast(executor.submit(new CompressTask(en.getValue(), en.getKey(), policy, stats, aborted)));
+            }
+            while(!inFlight.isEmpty()) {
+                writeEntry(inFlight.removeFirst(), zip);
+            }
+        } finally {
+            // in-flight entries are left only on error
+            if(!inFlight.isEmpty()) abort(inFlight, aborted);
+            executor.shutdownNow();
+        }
+    }
+
+    // running tasks delete their own data once they see abort flag, entries
+    // completed before that are disposed here after waiting for their tasks
+    private static void abort(Deque<Future<CompressedEntry>> inFlight, AtomicBoolean aborted) {
+        aborted.set(true);
+        for(Future<CompressedEntry> fu : inFlight) {
+            fu.cancel(false);
+        }
+        for(Future<CompressedEntry> fu : inFlight) {
+            if(!fu.isCancelled()) disposeQuietly(fu);
+        }
+    }
+
+    private static void writeEntry(Future<CompressedEntry> future, ZipArchiveOutputStream zip) throws IOException {
+        CompressedEntry de = get(future);
+        InputStream is = null;
+        try {
+            is = de.data.isInMemory() ? new ByteArrayInputStream(de.data.getData()) : new FileInputStream(de.data.getFile());
+            zip.addRawArchiveEntry(de.entry, is);
+        } finally {
+            closeQuietly(is);
+            de.dispose();
+        }
+    }
+
+    private static void disposeQuietly(Future<CompressedEntry> future) {
+        boolean interrupted = false;
+        try {
+            while(true) {
+                try {
+                    future.get().dispose();
+                    return;
+                } catch (InterruptedException e) {
+                    // compressed data must not be left in temp directory
+                    interrupted = true;
+                } catch (Exception e) {
+                    // failed task cleans up itself
+                    return;
+                }
+            }
+        } finally {
+            if(interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    static <T> T get(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new UnhandledException(e.getCause());
+        }
+    }
+
+    private static class CompressTask implements Callable<CompressedEntry> {
+        private final File file;
+        private final String name;
+        private final CompressionPolicy policy;
+        private final CompressionStats stats;
+        private final AtomicBoolean aborted;
+
+        private CompressTask(File file, String name, CompressionPolicy policy, CompressionStats stats,
+                             AtomicBoolean aborted) {
+            this.file = file;
+            this.name = name;
+            this.policy = policy;
+            this.stats = stats;
+            this.aborted = aborted;
+        }
+
+        public CompressedEntry call() throws IOException {
+            long start = System.nanoTime();
+            boolean stored = policy.isStored(name);
+            DeferredFileOutputStream data = new DeferredFileOutputStream(MEMORY_THRESHOLD, "installer-deflate", ".tmp", null);
+            CountingOutputStream counting = new CountingOutputStream(data);
+            Deflater deflater = stored ? null : new Deflater(policy.getLevel(), true);
+            CRC32 crc = new CRC32();
+            InputStream is = null;
+            try {
+                is = new FileInputStream(file);
+                DeflaterOutputStream deflating = stored ? null : new DeflaterOutputStream(counting, deflater, 64 * 1024);
+                OutputStream out = stored ? counting : deflating;
+                byte[] buf = new byte[64 * 1024];
+                long size = 0;
+                int read;
+                while(-1 != (read = is.read(buf))) {
+                    if(aborted.get()) throw new InterruptedIOException("Compression aborted: [" + name + "]");
+                    crc.update(buf, 0, read);
+                    out.write(buf, 0, read);
+                    size += read;
+                }
+                if(!stored) deflating.finish();
+                counting.close();
+                ZipArchiveEntry entry = new ZipArchiveEntry(file, name);
+                entry.setMethod(stored ? ZipArchiveEntry.STORED : ZipArchiveEntry.DEFLATED);
+                entry.setSize(size);
+                entry.setCompressedSize(counting.getByteCount());
+                entry.setCrc(crc.getValue());
+                stats.add(stored ? CompressionStats.STORED : CompressionStats.DEFLATE, size,
+                        counting.getByteCount(), System.nanoTime() - start);
+                return new CompressedEntry(entry, data);
+            } catch (IOException e) {
+                closeQuietly(counting);
+                if(!data.isInMemory()) data.getFile().delete();
+                throw e;
+            } finally {
+                closeQuietly(is);
+                if(null != deflater) deflater.end();
+            }
+        }
+    }
+
+    private static class CompressedEntry {
+        private final ZipArchiveEntry entry;
+        private final DeferredFileOutputStream data;
+
+        private CompressedEntry(ZipArchiveEntry entry, DeferredFileOutputStream data) {
+            this.entry = entry;
+            this.data = data;
+        }
+
+        private void dispose() {
+            if(!data.isInMemory() && !data.getFile().delete()) data.getFile().deleteOnExit();
+        }
+    }
+
+    /**
+     * Thread factory for daemon worker threads, so stuck workers never keep maven JVM alive
+     */
+    static class DaemonThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private int counter = 0;
+
+        DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public synchronized Thread newThread(Runnable r) {
+            Thread th = new Thread(r, prefix + "-" + counter++);
+            th.setDaemon(true);
+            return th;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static ru.concerteza.util.io.CtzIOUtils.mkdirs;
+import static ru.concerteza.util.string.CtzConstants.UTF8;
+
+/**
+ * Maven plugin, creates patch package that updates installed release to the current one.
+ * Current dist dir is compared with release manifest of the base release, patch contains
+ * added and changed files, binary deltas of large changed files if base release files are available
+ * and list of deleted files. Shared store files are never deleted by patch.
+ * Patch contains {@code PatchApplier} classes from project dependencies and is applied
+ * with 'bin/apply-patch.sh' or 'bin/apply_patch.bat' scripts.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ * @goal patch
+ * @phase package
+ * @requiresDependencyResolution runtime
+ */
+public class PatchMojo extends SettingsMojo {
+    private static final String APPLIER_PREFIX = "com/alexkasko/installer/PatchApplier";
+
+    /**
+     * Release manifest of the base release
+     *
+     * @parameter expression="${installer.patchBaseManifest}"
+     * @required
+     */
+    protected File patchBaseManifest;
+    /**
+     * Dist directory of the base release, binary deltas are computed only if it's specified
+     *
+     * @parameter expression="${installer.patchBaseDir}"
+     */
+    protected File patchBaseDir;
+    /**
+     * Output file (patch)
+     *
+     * @parameter expression="${installer.patchOutputFile}" default-value="${project.build.directory}/${project.artifactId}-${project.version}-patch.zip"
+     */
+    protected File patchOutputFile;
+    /**
+     * Minimal size in bytes of changed file to compute binary delta for
+     *
+     * @parameter expression="${installer.patchDeltaMinBytes}" default-value="262144"
+     */
+    protected long patchDeltaMinBytes;
+
+    /**
+     * Plugin entry point
+     *
+     * @throws MojoExecutionException
+     * @throws MojoFailureException
+     */
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if(!distDir.isDirectory()) throw new MojoExecutionException(
+                "Dist directory not found: [" + distDir.getAbsolutePath() + "], run 'installer' goal first");
+        ZipArchiveOutputStream zip = null;
+        try {
+            SortedMap<String, String> base = DistManifest.read(patchBaseManifest);
+            SortedMap<String, String> target = releaseManifest();
+            mkdirs(patchOutputFile.getAbsoluteFile().getParentFile());
+            zip = new ZipArchiveOutputStream(patchOutputFile);
+            Stats stats = new Stats();
+            writeApplier(zip);
+            writeText(DistManifest.format(base), "patch/base.sha1", zip);
+            writeText(DistManifest.format(target), "patch/target.sha1", zip);
+            StringBuilder deleted = new StringBuilder();
+            for(String path : base.keySet()) {
+                // shared store files may be used by other services
+                if(target.containsKey(path) || path.startsWith("../")) continue;
+                deleted.append(path).append("\n");
+                stats.deleted += 1;
+            }
+            writeText(deleted.toString(), "patch/deleted.txt", zip);
+            for(Map.Entry<String, String> en : target.entrySet()) {
+                String baseHash = base.get(en.getKey());
+                if(en.getValue().equals(baseHash)) continue;
+                File file = new File(distDir, en.getKey());
+                byte[] delta = null != baseHash ? delta(en.getKey(), baseHash, file) : null;
+                if(null != delta) {
+                    writeBytes(delta, "deltas/" + en.getKey(), zip);
+                    stats.deltas += 1;
+                    stats.deltaSourceBytes += file.length();
+                    stats.deltaBytes += delta.length;
+                } else {
+                    Archives.zipFile(file, "files/" + en.getKey(), zip);
+                    if(null != baseHash) stats.changed += 1;
+                    else stats.added += 1;
+                }
+            }
+            zip.finish();
+            stats.log(patchOutputFile.length());
+            getLog().info("Patch written to: [" + patchOutputFile.getPath() + "]");
+        } catch (IOException e) {
+            throw new MojoFailureException("Patch error", e);
+        } finally {
+            closeQuietly(zip);
+        }
+    }
+
+    // returns null if delta cannot be computed or is not smaller than file
+    private byte[] delta(String path, String baseHash, File file) throws IOException {
+        if(null == patchBaseDir || file.length() < patchDeltaMinBytes) return null;
+        File baseFile = new File(patchBaseDir, path);
+        if(!baseFile.isFile() || !baseHash.equals(Digests.sha1Hex(baseFile))) {
+            getLog().warn("Base release file not found or changed: [" + baseFile.getAbsolutePath() + "], full file is used");
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryDelta.write(baseFile, file, out);
+        // patch is compressed anyway, delta must win noticeably
+        return out.size() < file.length() * 9 / 10 ? out.toByteArray() : null;
+    }
+
+    // patch zip is used as a classpath for applier, so applier version matches patch format
+    @SuppressWarnings("unchecked")
+    private void writeApplier(ZipArchiveOutputStream zip) throws IOException {
+        List<File> jars = new ArrayList<File>();
+        if(null != project.getArtifact().getFile()) jars.add(project.getArtifact().getFile());
+        for(Artifact ar : (Set<Artifact>) project.getArtifacts()) {
+            jars.add(ar.getFile());
+        }
+        for(File fi : jars) {
+            if(!fi.isFile() || !fi.getName().endsWith(".jar")) continue;
+            ZipFile jar = new ZipFile(fi);
+            try {
+                boolean found = false;
+                for(Enumeration<? extends ZipEntry> en = jar.entries(); en.hasMoreElements(); ) {
+                    ZipEntry entry = en.nextElement();
+                    if(!entry.getName().startsWith(APPLIER_PREFIX) || !entry.getName().endsWith(".class")) continue;
+                    InputStream is = jar.getInputStream(entry);
+                    try {
+                        writeBytes(IOUtils.toByteArray(is), entry.getName(), zip);
+                    } finally {
+                        closeQuietly(is);
+                    }
+                    found = true;
+                }
+                if(found) return;
+            } finally {
+                jar.close();
+            }
+        }
+        getLog().warn("Patch applier not found in project dependencies, application classpath must be used to apply patch");
+    }
+
+    private static void writeText(String text, String name, ZipArchiveOutputStream zip) throws IOException {
+        writeBytes(text.getBytes(UTF8), name, zip);
+    }
+
+    private static void writeBytes(byte[] data, String name, ZipArchiveOutputStream zip) throws IOException {
+        zip.putArchiveEntry(new ZipArchiveEntry(name));
+        zip.write(data);
+        zip.closeArchiveEntry();
+    }
+
+    private class Stats {
+        private int added;
+        private int changed;
+        private int deleted;
+        private int deltas;
+        private long deltaSourceBytes;
+        private long deltaBytes;
+
+        private void log(long patchBytes) {
+            getLog().info(String.format(Locale.US, "Patch: added files: %d, changed files: %d, deleted files: %d",
+                    added, changed, deleted));
+            getLog().info(String.format(Locale.US, "Patch: binary deltas: %d, changed bytes: %d, delta bytes: %d, patch size: %d",
+                    deltas, deltaSourceBytes, deltaBytes, patchBytes));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.apache.commons.io.IOUtils.copy;
+
+/**
+ * Helpers for running external tools at build time
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class Processes {
+
+    private Processes() {
+    }
+
+    /**
+     * Runs command and collects its output
+     *
+     * @param command executable and its arguments
+     * @param workDir working directory, may be null
+     * @return process stdout and stderr combined
+     * @throws IOException if process cannot be started or exits with non-zero code
+     */
+    public static String run(List<String> command, File workDir) throws IOException {
+        InputStream is = null;
+        try {
+            Process pr = new ProcessBuilder(command).directory(workDir).redirectErrorStream(true).start();
+            pr.getOutputStream().close();
+            is = pr.getInputStream();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            copy(is, out);
+            String output = out.toString();
+            int code = pr.waitFor();
+            if(0 != code) throw new IOException("Command: [" + StringUtils.join(command, " ") + "] " +
+                    "exited with code: [" + code + "], output: [" + output.trim() + "]");
+            return output;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running command: [" + StringUtils.join(command, " ") + "]");
+        } finally {
+            closeQuietly(is);
+        }
+    }
+
+    /**
+     * @param javaHome JDK or JRE directory
+     * @param name tool name without extension, e.g. 'java' or 'jlink'
+     * @return tool executable
+     * @throws IOException if tool executable does not exist
+     */
+    public static File javaTool(File javaHome, String name) throws IOException {
+        File bin = new File(javaHome, "bin");
+        File exe = new File(bin, name + ".exe");
+        if(exe.isFile()) return exe;
+        File unix = new File(bin, name);
+        if(unix.isFile()) return unix;
+        throw new IOException("Tool: [" + name + "] not found in: [" + bin.getAbsolutePath() + "]");
+    }
+}
@@ -0,0 +1,64 @@
+package com.alexkasko.installer;
+
+/**
+ * Service definition for batch build, not null fields override plugin settings
+ * with the same names for this service, see {@link BatchInstallerMojo}
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class Service {
+    private String id;
+    private String prunsrvServiceName;
+    private String prunsrvDisplayName;
+    private String prunsrvDescription;
+    private String prunsrvDaemonLauncherClass;
+    private String prunsrvJvmOptions;
+    private String jvmProfile;
+    private String izpackAppName;
+    private String izpackDefaultInstallDir;
+
+    /**
+     * @return service id, used in output file names and staging directory name
+     */
+    public String getId() {
+        return id;
+    }
+
+    public String getPrunsrvServiceName() {
+        return prunsrvServiceName;
+    }
+
+    public String getPrunsrvDisplayName() {
+        return prunsrvDisplayName;
+    }
+
+    public String getPrunsrvDescription() {
+        return prunsrvDescription;
+    }
+
+    public String getPrunsrvDaemonLauncherClass() {
+        return prunsrvDaemonLauncherClass;
+    }
+
+    public String getPrunsrvJvmOptions() {
+        return prunsrvJvmOptions;
+    }
+
+    public String getJvmProfile() {
+        return jvmProfile;
+    }
+
+    public String getIzpackAppName() {
+        return izpackAppName;
+    }
+
+    public String getIzpackDefaultInstallDir() {
+        return izpackDefaultInstallDir;
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
@@ -2,14 +2,24 @@ package com.alexkasko.installer;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang.UnhandledException;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.project.MavenProject;
 import ru.concerteza.util.io.CtzResourceUtils;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.security.MessageDigest;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import static ru.concerteza.util.io.CtzResourceUtils.readResourceToString;
+import static ru.concerteza.util.string.CtzConstants.UTF8;
 
 /**
  * Supertype for plugin, encapsulates settings
@@ -49,6 +59,58 @@ public abstract class SettingsMojo extends AbstractMojo {
      *
      */
     protected boolean useX86LaunchersForX64Installer;
+    /**
+     * Whether to cache compressed JRE files between builds, cached entries are copied
+     * into installer zip without recompression
+     *
+     * @parameter expression="${installer.useJreCache}" default-value="false"
+     */
+    protected boolean useJreCache;
+    /**
+     * Directory for compressed JRE cache, entries are keyed by JRE contents hash
+     *
+     * @parameter expression="${installer.jreCacheDir}" default-value="${user.home}/.m2/windows-service-installer/jre-cache"
+     */
+    protected File jreCacheDir;
+    /**
+     * Whether to bundle trimmed runtime image built with jlink instead of full JRE,
+     * requires JDK 11 or later
+     *
+     * @parameter expression="${installer.jlinkRuntime}" default-value="false"
+     */
+    protected boolean jlinkRuntime;
+    /**
+     * JDK providing jdeps and jlink tools, must be of the same version as linked modules
+     *
+     * @parameter expression="${installer.jlinkJdkDir}" default-value="${java.home}"
+     */
+    protected File jlinkJdkDir;
+    /**
+     * Directory with modules to link, use 'jmods' of Windows JDK to build
+     * Windows runtime on other platform, 'jmods' directory under jreDir is used by default
+     *
+     * @parameter expression="${installer.jlinkModulePath}"
+     */
+    protected File jlinkModulePath;
+    /**
+     * Modules to include into runtime image, detected with jdeps from project artifacts if not set
+     *
+     * @parameter expression="${installer.jlinkModules}"
+     */
+    protected List<String> jlinkModules;
+    /**
+     * Modules to include in addition to detected ones, e.g. service providers
+     * like 'jdk.crypto.ec' or 'jdk.localedata' that jdeps cannot see
+     *
+     * @parameter expression="${installer.jlinkAdditionalModules}"
+     */
+    protected List<String> jlinkAdditionalModules;
+    /**
+     * Additional jlink options separated with spaces
+     *
+     * @parameter expression="${installer.jlinkOptions}" default-value="--strip-debug --compress=2 --no-header-files --no-man-pages"
+     */
+    protected String jlinkOptions;
     /**
      * Resource path to x86 installer launcher
      *
@@ -95,7 +157,9 @@ public abstract class SettingsMojo extends AbstractMojo {
      */
     protected String izpackLang;
     /**
-     * Installer compress option, values are 'raw' (default), 'deflate' and 'bzip2'
+     * Installer compress option, values are 'raw' (default), 'deflate' and 'bzip2'.
+     * Raw packs are deflated with compressionLevel when installer jar is written
+     * directly into installer archive
      *
      * @parameter expression="${installer.izpackCompress}" default-value="raw"
      */
@@ -130,6 +194,18 @@ public abstract class SettingsMojo extends AbstractMojo {
      * @parameter expression="${installer.izpackJREPackName}" default-value="Java Runtime Environment"
      */
     protected String izpackJREPackDescription;
+    /**
+     * Shared store pack name
+     *
+     * @parameter expression="${installer.izpackSharedStorePackName}" default-value="Shared libraries"
+     */
+    protected String izpackSharedStorePackName;
+    /**
+     * Shared store pack description
+     *
+     * @parameter expression="${installer.izpackSharedStorePackDescription}" default-value="Libraries shared between services"
+     */
+    protected String izpackSharedStorePackDescription;
     /**
      * Windows Service pack name
      *
@@ -203,7 +279,10 @@ public abstract class SettingsMojo extends AbstractMojo {
     protected String prunsrvStartClass;
     /**
      * Application class implementing com.alexkasko.installer.DaemonLauncher.
-     * Will be called by StandardLauncher (prunsrvStartClass) by default
+     * Will be called by StandardLauncher (prunsrvStartClass) by default.
+     * Multiple comma-separated classes may be specified to run them in one JVM, they are started
+     * in parallel, dependencies may be declared after ':' separated with '+',
+     * e.g. 'app.Db,app.Web:app.Db'
      *
      * @parameter expression="${installer.prunsrvDaemonLauncherClass}"
      * @required
@@ -254,6 +333,15 @@ public abstract class SettingsMojo extends AbstractMojo {
      * @parameter expression="${installer.prunsrvJvmSs}" default-value="512"
      */
     protected int prunsrvJvmSs;
+    /**
+     * Named JVM performance profile: 'low-latency', 'throughput' or 'small-footprint'. Profile sets GC,
+     * thread stack size and heap size as a percentage of host memory detected by JVM on start,
+     * prunsrvJvmMs, prunsrvJvmMx and prunsrvJvmSs are not used with profile. Options from prunsrvJvmOptions
+     * and JVM_ARGS environment variable are applied after profile ones and take precedence
+     *
+     * @parameter expression="${installer.jvmProfile}"
+     */
+    protected String jvmProfile;
     /**
      * Windows service display name
      *
@@ -267,7 +355,7 @@ public abstract class SettingsMojo extends AbstractMojo {
      */
     protected String prunsrvDescription;
     /**
-     * Prunsrv service stop timeout in seconds
+     * Prunsrv service stop timeout in seconds, '0' means waiting for service stop indefinitely
      *
      * @parameter expression="${installer.prunsrvStopTimeout}" default-value="0"
      */
@@ -309,6 +397,207 @@ public abstract class SettingsMojo extends AbstractMojo {
      */
     protected boolean prunsrvStartOnInstrall;
 
+    // Startup parameters
+
+    /**
+     * Name of manifest-only jar in 'bin' directory whose 'Class-Path' lists launcher jar and all jars
+     * from 'lib' directory, it is used as a classpath by service and startup scripts
+     *
+     * @parameter expression="${installer.classpathJarFile}" default-value="classpath.jar"
+     */
+    protected String classpathJarFile;
+    /**
+     * Whether to merge launcher jar and all dependencies into a single uncompressed jar in 'lib' directory
+     * instead of copying them, JVM opens and indexes only one jar on startup
+     *
+     * @parameter expression="${installer.mergedClasspath}" default-value="false"
+     */
+    protected boolean mergedClasspath;
+    /**
+     * Name of merged jar in 'lib' directory
+     *
+     * @parameter expression="${installer.mergedJarFile}" default-value="app-merged.jar"
+     */
+    protected String mergedJarFile;
+    /**
+     * Additional rules for entries present in multiple jars in 'pattern=strategy' format,
+     * patterns support '*' and '?' wildcards, strategies: 'first', 'concat', 'lines', 'skip', 'fail'.
+     * By default service files are merged by lines, signatures and manifests are skipped
+     * and first entry in classpath order is used for other entries
+     *
+     * @parameter
+     */
+    protected List<String> mergeRules;
+    /**
+     * Whether to fail build if entries with the same name and different contents are found in merged jars
+     *
+     * @parameter expression="${installer.mergeConflictsFail}" default-value="false"
+     */
+    protected boolean mergeConflictsFail;
+    /**
+     * Whether to install jars and JRE into content-addressed store shared by all services installed
+     * into the same parent directory, jars are stored once per contents and JRE once per version.
+     * Shared files are not removed on uninstall
+     *
+     * @parameter expression="${installer.sharedStore}" default-value="false"
+     */
+    protected boolean sharedStore;
+    /**
+     * Name of shared store directory, store is placed next to application directory
+     *
+     * @parameter expression="${installer.sharedStoreName}" default-value="shared-store"
+     */
+    protected String sharedStoreName;
+    // set on execution, identifies JRE in shared store
+    protected String sharedJreKey;
+
+    /**
+     * Whether to use application class data sharing archive. Classes loaded by prunsrvDaemonLauncherClass
+     * are recorded with a training run at build time, archive is dumped from this class list
+     * on the target host by service install, patch and startup scripts and passed to JVM from them.
+     * JVM falls back to regular class loading if archive cannot be dumped (e.g. on Java 8)
+     * or does not match runtime or classpath. Application classes are archived only if installation
+     * path contains no spaces, JDK classes are archived anyway
+     *
+     * @parameter expression="${installer.cdsArchive}" default-value="false"
+     */
+    protected boolean cdsArchive;
+    /**
+     * Name of class data sharing archive file in 'bin' directory, class list is written next to it
+     * with '.classlist' extension
+     *
+     * @parameter expression="${installer.cdsArchiveFile}" default-value="app-cds.jsa"
+     */
+    protected String cdsArchiveFile;
+    /**
+     * Java 11 or later runtime for training run, should be the same version as bundled JRE,
+     * bundled JRE is used by default
+     *
+     * @parameter expression="${installer.cdsJavaHome}"
+     */
+    protected File cdsJavaHome;
+    /**
+     * How long application runs during training, in milliseconds
+     *
+     * @parameter expression="${installer.cdsTrainingMillis}" default-value="5000"
+     */
+    protected int cdsTrainingMillis;
+    /**
+     * Time limit for daemon shutdown in milliseconds, '0' means no limit. Launchers are drained and stopped
+     * by StandardLauncher within this time both on service stop and on TERM signal, thread dump is printed
+     * to stderr on timeout. Should be less than prunsrvStopTimeout if it is set.
+     *
+     * @parameter expression="${installer.launcherStopTimeoutMillis}" default-value="30000"
+     */
+    protected long launcherStopTimeoutMillis;
+    /**
+     * Time limit for draining in-flight work by launchers implementing GracefulDaemonLauncher
+     * in milliseconds, half of launcherStopTimeoutMillis is used if not set
+     *
+     * @parameter expression="${installer.launcherDrainTimeoutMillis}"
+     */
+    protected Long launcherDrainTimeoutMillis;
+    /**
+     * Time limit in milliseconds for launchers implementing ReadinessAwareLauncher to become ready,
+     * '0' means no limit. Daemon startup fails if launchers are not ready in time, ready daemon creates
+     * '.ready' file in application directory
+     *
+     * @parameter expression="${installer.launcherReadyTimeoutMillis}" default-value="300000"
+     */
+    protected long launcherReadyTimeoutMillis;
+    /**
+     * Class implementing com.alexkasko.installer.DaemonWarmUp, it is run by StandardLauncher after launchers
+     * are started and before daemon is reported as ready, launcher instance is used if it is one
+     * of the launcher classes. Warm-up time and JIT stats are written to '.ready' file.
+     *
+     * @parameter expression="${installer.launcherWarmUpClass}"
+     */
+    protected String launcherWarmUpClass;
+    /**
+     * Warm-up time budget in milliseconds, '0' means no time limit
+     *
+     * @parameter expression="${installer.launcherWarmUpMillis}" default-value="30000"
+     */
+    protected long launcherWarmUpMillis;
+    /**
+     * Warm-up iterations budget, '0' means no iterations limit
+     *
+     * @parameter expression="${installer.launcherWarmUpIterations}" default-value="0"
+     */
+    protected long launcherWarmUpIterations;
+    /**
+     * Path to recorded requests file relative to installation directory, its lines are passed
+     * to warm-up routine in a loop
+     *
+     * @parameter expression="${installer.launcherWarmUpRequestsFile}"
+     */
+    protected String launcherWarmUpRequestsFile;
+    /**
+     * Local port to serve JVM and daemon lifecycle metrics in Prometheus text format at '/metrics' path,
+     * '0' disables HTTP metrics, server is bound to loopback interface
+     *
+     * @parameter expression="${installer.metricsPort}" default-value="0"
+     */
+    protected int metricsPort;
+    /**
+     * Whether startup.sh runs daemon JVM under supervisor process that restarts it on crash
+     * with exponential backoff and kills it if it does not stop within launcherStopTimeoutMillis
+     * plus 10 seconds, supervisor pid is written to '.pid' file
+     *
+     * @parameter expression="${installer.unixSupervisor}" default-value="false"
+     */
+    protected boolean unixSupervisor;
+    /**
+     * Interval in milliseconds to write metrics snapshots in Prometheus text format to metricsFile
+     * in prunsrvLogPath directory, '0' disables snapshots
+     *
+     * @parameter expression="${installer.metricsSnapshotIntervalMillis}" default-value="0"
+     */
+    protected long metricsSnapshotIntervalMillis;
+    /**
+     * Name of metrics snapshot file in prunsrvLogPath directory
+     *
+     * @parameter expression="${installer.metricsFile}" default-value="metrics.prom"
+     */
+    protected String metricsFile;
+    /**
+     * Name of file in prunsrvLogPath directory to capture daemon stdout and stderr into
+     * through asynchronous buffer, capture is disabled if not set
+     *
+     * @parameter expression="${installer.outputFile}"
+     */
+    protected String outputFile;
+    /**
+     * Output file size in bytes to rotate it at, rotated files are gzipped, '0' disables size rotation
+     *
+     * @parameter expression="${installer.outputMaxFileBytes}" default-value="10485760"
+     */
+    protected long outputMaxFileBytes;
+    /**
+     * Interval in milliseconds to rotate output file at, '0' disables time rotation
+     *
+     * @parameter expression="${installer.outputRotateMillis}" default-value="0"
+     */
+    protected long outputRotateMillis;
+    /**
+     * Number of rotated output files to keep
+     *
+     * @parameter expression="${installer.outputMaxFiles}" default-value="10"
+     */
+    protected int outputMaxFiles;
+    /**
+     * Size of output buffer in bytes
+     *
+     * @parameter expression="${installer.outputBufferBytes}" default-value="1048576"
+     */
+    protected int outputBufferBytes;
+    /**
+     * What to do when output buffer is full: 'block' writing thread or 'drop' written output
+     *
+     * @parameter expression="${installer.outputOverflow}" default-value="block"
+     */
+    protected String outputOverflow;
+
     // Build parameters
 
     /**
@@ -342,6 +631,13 @@ public abstract class SettingsMojo extends AbstractMojo {
      * @readonly
      */
     protected File izpackOutputFile;
+    /**
+     * Whether to keep standalone IzPack output file, by default IzPack output
+     * is written directly into installer archive
+     *
+     * @parameter expression="${installer.keepIzpackOutputFile}" default-value="false"
+     */
+    protected boolean keepIzpackOutputFile;
     /**
      * Output file (installer)
      *
@@ -360,6 +656,88 @@ public abstract class SettingsMojo extends AbstractMojo {
      * @parameter expression="${installer.distOutputFile}" default-value="${project.build.directory}/${project.artifactId}-dist.tgz"
      */
     protected File distOutputFile;
+    /**
+     * Distribution compression format: 'gzip' (default), 'xz', 'zstd' or 'none' (plain tar),
+     * distOutputFile extension should be changed accordingly, e.g. to '.tar.zst'
+     *
+     * @parameter expression="${installer.distCompression}" default-value="gzip"
+     */
+    protected String distCompression;
+    /**
+     * Distribution compression level, '-1' means compressionLevel for gzip and format default for xz (6)
+     * and zstd (3). Levels from 0 to 9 are supported by gzip and xz, from 1 to 22 by zstd
+     *
+     * @parameter expression="${installer.distCompressionLevel}" default-value="-1"
+     */
+    protected int distCompressionLevel;
+    /**
+     * Release manifest with SHA-1 hashes of all dist files, used as a base for patches of the following
+     * releases, see 'patch' goal
+     *
+     * @parameter expression="${installer.releaseManifestFile}" default-value="${project.build.directory}/${project.artifactId}-${project.version}-manifest.sha1"
+     */
+    protected File releaseManifestFile;
+    /**
+     * How libraries, launcher, JRE and application directories are staged before packing:
+     * 'copy' (default), 'link' (hard links) or 'reflink' (copy-on-write clones, Linux only).
+     * Linking falls back to copying when not supported. Staged files are shared with sources
+     * and must not be modified in place
+     *
+     * @parameter expression="${installer.stagingMode}" default-value="copy"
+     */
+    protected String stagingMode;
+    /**
+     * Number of threads used to compress installer and distribution archives,
+     * '0' means number of available processors. With values greater than one
+     * distribution is written as multi-member gzip
+     *
+     * @parameter expression="${installer.parallelism}" default-value="1"
+     */
+    protected int parallelism;
+    /**
+     * Deflate level from 0 (no compression) to 9 for installer archive entries and IzPack packs
+     *
+     * @parameter expression="${installer.compressionLevel}" default-value="6"
+     */
+    protected int compressionLevel;
+    /**
+     * Comma-separated extensions of already compressed files that are stored into installer archive
+     * without recompression
+     *
+     * @parameter expression="${installer.compressionStoredExtensions}" default-value="jar,war,ear,zip,jmod,gz,tgz,bz2,xz,zst,7z,png,gif,jpg,jpeg"
+     */
+    protected String compressionStoredExtensions;
+    /**
+     * Max number of build stages run at the same time, independent stages
+     * (e.g. libs, JRE and app data copying) are run concurrently
+     *
+     * @parameter expression="${installer.stageThreads}" default-value="4"
+     */
+    protected int stageThreads;
+    /**
+     * Whether to run build stages one by one on the calling thread
+     *
+     * @parameter expression="${installer.serialStages}" default-value="false"
+     */
+    protected boolean serialStages;
+    /**
+     * Whether to skip build stages whose inputs are unchanged since the previous build
+     *
+     * @parameter expression="${installer.incrementalBuild}" default-value="false"
+     */
+    protected boolean incrementalBuild;
+    /**
+     * Build manifest with stage inputs fingerprints, used for incremental builds
+     *
+     * @parameter expression="${installer.buildManifestFile}" default-value="${project.build.directory}/izpack/build-manifest.properties"
+     */
+    protected File buildManifestFile;
+    /**
+     * JSON report with wall time, I/O and compression counters of each build stage
+     *
+     * @parameter expression="${installer.buildReportFile}" default-value="${project.build.directory}/izpack/build-report.json"
+     */
+    protected File buildReportFile;
     /**
      * Freemarker work directory
      *
@@ -381,6 +759,71 @@ public abstract class SettingsMojo extends AbstractMojo {
      */
     protected MavenProject project;
 
+    /**
+     * Computes digest over all plugin parameters, used as an input of incremental build stages
+     * that render templates or otherwise depend on settings
+     *
+     * @return lowercase hex SHA-1
+     */
+    protected String settingsDigest() {
+        SortedMap<String, String> values = new TreeMap<String, String>();
+        for(Field fi : SettingsMojo.class.getDeclaredFields()) {
+            if(Modifier.isStatic(fi.getModifiers()) || MavenProject.class.equals(fi.getType())) continue;
+            try {
+                values.put(fi.getName(), String.valueOf(fi.get(this)));
+            } catch (IllegalAccessException e) {
+                throw new UnhandledException(e);
+            }
+        }
+        try {
+            MessageDigest digest = Digests.sha1();
+            digest.update(values.toString().getBytes(UTF8));
+            return Digests.toHex(digest.digest());
+        } catch (UnsupportedEncodingException e) {
+            throw new UnhandledException(e);
+        }
+    }
+
+    /**
+     * Shared store is staged next to dist dir, so relative classpath works for build time training runs
+     *
+     * @return shared store staging directory
+     */
+    protected File sharedStoreDir() {
+        return new File(distDir.getAbsoluteFile().getParentFile(), sharedStoreName);
+    }
+
+    /**
+     * Hashes files of staged release, shared store files are keyed by paths relative to dist dir
+     *
+     * @return SHA-1 hashes keyed by relative paths
+     * @throws IOException on read error
+     */
+    protected SortedMap<String, String> releaseManifest() throws IOException {
+        SortedMap<String, String> res = DistManifest.scan(distDir);
+        if(sharedStore) {
+            for(Map.Entry<String, String> en : DistManifest.scan(sharedStoreDir()).entrySet()) {
+                res.put("../" + sharedStoreName + "/" + en.getKey(), en.getValue());
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @return configured parallelism or number of available processors if not set
+     */
+    protected int effectiveParallelism() {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @return compression policy for installer archive entries
+     * @throws IllegalArgumentException on invalid compression level
+     */
+    protected CompressionPolicy compressionPolicy() {
+        return CompressionPolicy.of(compressionLevel, compressionStoredExtensions);
+    }
+
     // getters for freemarker
 
     public String getIzpackAppName() {
@@ -419,6 +862,26 @@ public abstract class SettingsMojo extends AbstractMojo {
         return izpackJREPackDescription;
     }
 
+    public String getIzpackSharedStorePackName() {
+        return izpackSharedStorePackName;
+    }
+
+    public String getIzpackSharedStorePackDescription() {
+        return izpackSharedStorePackDescription;
+    }
+
+    public boolean isSharedStore() {
+        return sharedStore;
+    }
+
+    public String getSharedStoreName() {
+        return sharedStoreName;
+    }
+
+    public String getSharedJreKey() {
+        return sharedJreKey;
+    }
+
     public String getIzpackWindowsServicePackName() {
         return izpackWindowsServicePackName;
     }
@@ -524,6 +987,118 @@ public abstract class SettingsMojo extends AbstractMojo {
         return FilenameUtils.getName(izpackHelloIconPath);
     }
 
+    public String getClasspathJarFile() {
+        return classpathJarFile;
+    }
+
+    public boolean isCdsArchive() {
+        return cdsArchive;
+    }
+
+    public String getCdsArchiveFile() {
+        return cdsArchiveFile;
+    }
+
+    public String getCdsClassListFile() {
+        return FilenameUtils.removeExtension(cdsArchiveFile) + ".classlist";
+    }
+
+    public long getLauncherStopTimeoutMillis() {
+        return launcherStopTimeoutMillis;
+    }
+
+    public Long getLauncherDrainTimeoutMillis() {
+        return launcherDrainTimeoutMillis;
+    }
+
+    public long getLauncherReadyTimeoutMillis() {
+        return launcherReadyTimeoutMillis;
+    }
+
+    public String getLauncherWarmUpClass() {
+        return launcherWarmUpClass;
+    }
+
+    public long getLauncherWarmUpMillis() {
+        return launcherWarmUpMillis;
+    }
+
+    public long getLauncherWarmUpIterations() {
+        return launcherWarmUpIterations;
+    }
+
+    public String getLauncherWarmUpRequestsFile() {
+        return launcherWarmUpRequestsFile;
+    }
+
+    public boolean isUnixSupervisor() {
+        return unixSupervisor;
+    }
+
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    public long getMetricsSnapshotIntervalMillis() {
+        return metricsSnapshotIntervalMillis;
+    }
+
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    public String getOutputFile() {
+        return outputFile;
+    }
+
+    public long getOutputMaxFileBytes() {
+        return outputMaxFileBytes;
+    }
+
+    public long getOutputRotateMillis() {
+        return outputRotateMillis;
+    }
+
+    public int getOutputMaxFiles() {
+        return outputMaxFiles;
+    }
+
+    public int getOutputBufferBytes() {
+        return outputBufferBytes;
+    }
+
+    public String getOutputOverflow() {
+        return outputOverflow;
+    }
+
+    public String getJvmProfile() {
+        return jvmProfile;
+    }
+
+    /**
+     * @return profile options separated with ';' for prunsrv, null if profile is not set
+     */
+    public String getJvmProfileOptions() {
+        return null != jvmProfile ? JvmProfile.of(jvmProfile).options(";") : null;
+    }
+
+    /**
+     * @return profile options separated with spaces for shell scripts, null if profile is not set
+     */
+    public String getJvmProfileArgs() {
+        if(null == jvmProfile) return null;
+        JvmProfile profile = JvmProfile.of(jvmProfile);
+        return profile.options(" ") + " -Xss" + profile.getStackKb() + "k";
+    }
+
+    public int getJvmProfileStackKb() {
+        return null != jvmProfile ? JvmProfile.of(jvmProfile).getStackKb() : prunsrvJvmSs;
+    }
+
+    public boolean isStreamIzpackOutput() {
+        return !keepIzpackOutputFile;
+    }
+
     public String getIzpackAdditionalPacks() {
         return readResourceToString(izpackAdditionalPacksPath);
     }
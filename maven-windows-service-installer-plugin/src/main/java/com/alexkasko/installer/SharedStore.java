@@ -0,0 +1,108 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.filefilter.SuffixFileFilter;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.TreeMap;
+
+import static ru.concerteza.util.string.CtzConstants.UTF8;
+
+/**
+ * Layout of content-addressed store shared between services installed into the same parent
+ * directory. Jars are stored as 'lib/[sha1]/[name].jar', so identical jars of different services
+ * and versions are installed once, runtime is stored as 'jre/[key]' where key identifies
+ * runtime version and contents.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class SharedStore {
+    private static final int RUNTIME_KEY_LENGTH = 16;
+
+    private final File dir;
+    private final Staging staging;
+
+    /**
+     * @param dir staging directory of the store
+     * @param staging staging used to place jars into store
+     */
+    public SharedStore(File dir, Staging staging) {
+        this.dir = dir;
+        this.staging = staging;
+    }
+
+    /**
+     * Replaces store contents with jars from the given directory
+     *
+     * @param libDir directory with jars
+     * @return counts of copied and linked jars
+     * @throws IOException on IO error
+     */
+    public Staging.Counts publish(File libDir) throws IOException {
+        File lib = new File(dir, "lib");
+        // jars of previous builds must not get into classpath
+        FileUtils.deleteDirectory(lib);
+        Staging.Counts res = new Staging.Counts();
+        for(File fi : sortedJars(libDir)) {
+            res.add(staging.copyFile(fi, new File(lib, Digests.sha1Hex(fi) + "/" + fi.getName())));
+        }
+        return res;
+    }
+
+    /**
+     * Lists published jars
+     *
+     * @return jars sorted by names, keyed by paths relative to store directory
+     */
+    public LinkedHashMap<String, File> jars() {
+        TreeMap<String, String> sorted = new TreeMap<String, String>();
+        File[] hashes = new File(dir, "lib").listFiles();
+        if(null != hashes) {
+            for(File ha : hashes) {
+                for(File fi : sortedJars(ha)) {
+                    sorted.put(fi.getName() + "/" + ha.getName(), "lib/" + ha.getName() + "/" + fi.getName());
+                }
+            }
+        }
+        LinkedHashMap<String, File> res = new LinkedHashMap<String, File>();
+        for(String path : sorted.values()) {
+            res.put(path, new File(dir, path));
+        }
+        return res;
+    }
+
+    /**
+     * Computes key of runtime in store from its 'release' file, that contains runtime version,
+     * architecture and, for jlink images, list of modules
+     *
+     * @param javaHome runtime or JDK directory
+     * @param extra additional inputs that change runtime contents, e.g. jlink options
+     * @return runtime key
+     * @throws IOException on IO error
+     */
+    public static String runtimeKey(File javaHome, String extra) throws IOException {
+        MessageDigest digest = Digests.sha1();
+        File release = new File(javaHome, "release");
+        if(release.isFile()) {
+            digest.update(FileUtils.readFileToByteArray(release));
+        } else {
+            // Java 6 runtimes have no 'release' file
+            digest.update(javaHome.getAbsolutePath().getBytes(UTF8));
+        }
+        digest.update(extra.getBytes(UTF8));
+        return Digests.toHex(digest.digest()).substring(0, RUNTIME_KEY_LENGTH);
+    }
+
+    private static File[] sortedJars(File dir) {
+        File[] res = dir.listFiles((FileFilter) new SuffixFileFilter(".jar"));
+        if(null == res) return new File[0];
+        Arrays.sort(res);
+        return res;
+    }
+}
@@ -0,0 +1,163 @@
+package com.alexkasko.installer;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Runs build stages as a task graph: stage is started as soon as all stages it depends on
+ * are completed. Stages are run on a bounded pool of threads, or one by one in declaration
+ * order on the calling thread in serial mode. After the first failure no new stages are started,
+ * already running stages are allowed to complete.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class StageExecutor {
+    private final int threads;
+    private final Log log;
+
+    /**
+     * @param threads max number of stages run at the same time, '1' means serial execution
+     * @param log maven log
+     */
+    public StageExecutor(int threads, Log log) {
+        if(threads < 1) throw new IllegalArgumentException("Invalid threads count: [" + threads + "]");
+        this.threads = threads;
+        this.log = log;
+    }
+
+    /**
+     * Runs stages, dependencies between them are taken from {@link BuildStage#dependsOn(BuildStage)}
+     *
+     * @param stages stage bodies
+     * @throws StageFailureException if any stage failed
+     */
+    public void run(Map<BuildStage, ? extends Callable<?>> stages) throws StageFailureException {
+        Map<BuildStage, Exception> failures = 1 == threads ? runSerial(stages) : runParallel(stages);
+        if(failures.isEmpty()) return;
+        for(Map.Entry<BuildStage, Exception> en : failures.entrySet()) {
+            log.error("Stage [" + en.getKey().getId() + "] failed", en.getValue());
+        }
+        throw new StageFailureException(failures);
+    }
+
+    private Map<BuildStage, Exception> runSerial(Map<BuildStage, ? extends Callable<?>> stages) {
+        Map<BuildStage, Exception> failures = new EnumMap<BuildStage, Exception>(BuildStage.class);
+        for(Map.Entry<BuildStage, ? extends Callable<?>> en : new EnumMap<BuildStage, Callable<?>>(stages).entrySet()) {
+            try {
+                en.getValue().call();
+            } catch (Exception e) {
+                failures.put(en.getKey(), e);
+                break;
+            }
+        }
+        return failures;
+    }
+
+    private Map<BuildStage, Exception> runParallel(Map<BuildStage, ? extends Callable<?>> stages) {
+        Map<BuildStage, Exception> failures = new EnumMap<BuildStage, Exception>(BuildStage.class);
+        Map<BuildStage, Callable<?>> pending = new EnumMap<BuildStage, Callable<?>>(stages);
+        Set<BuildStage> running = EnumSet.noneOf(BuildStage.class);
+        Set<BuildStage> completed = EnumSet.noneOf(BuildStage.class);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ParallelZipWriter.DaemonThreadFactory("installer-stage"));
+        CompletionService<BuildStage> completion = new ExecutorCompletionService<BuildStage>(executor);
+        try {
+            while(true) {
+                if(failures.isEmpty()) submitReady(pending, running, completed, completion);
+                if(running.isEmpty()) break;
+                Future<BuildStage> done = take(completion);
+                BuildStage stage = stageOf(done, failures);
+                running.remove(stage);
+                if(!failures.containsKey(stage)) completed.add(stage);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        if(failures.isEmpty() && !pending.isEmpty()) {
+            throw new IllegalStateException("Unresolvable stages dependencies: " + pending.keySet());
+        }
+        return failures;
+    }
+
+    private static void submitReady(Map<BuildStage, Callable<?>> pending, Set<BuildStage> running,
+                                    Set<BuildStage> completed, CompletionService<BuildStage> completion) {
+        for(BuildStage stage : new ArrayList<BuildStage>(pending.keySet())) {
+            if(!ready(stage, pending.keySet(), running)) continue;
+            completion.submit(new StageTask(stage, pending.remove(stage)));
+            running.add(stage);
+        }
+    }
+
+    // all upstream stages present in graph must be completed, stages absent in graph are ignored
+    private static boolean ready(BuildStage stage, Set<BuildStage> pending, Set<BuildStage> running) {
+        for(BuildStage other : pending) {
+            if(stage.dependsOn(other)) return false;
+        }
+        for(BuildStage other : running) {
+            if(stage.dependsOn(other)) return false;
+        }
+        return true;
+    }
+
+    private static Future<BuildStage> take(CompletionService<BuildStage> completion) {
+        try {
+            return completion.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for build stages", e);
+        }
+    }
+
+    private static BuildStage stageOf(Future<BuildStage> future, Map<BuildStage, Exception> failures) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for build stages", e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof Error) throw (Error) e.getCause();
+            StageError err = (StageError) e.getCause();
+            failures.put(err.stage, err.cause);
+            return err.stage;
+        }
+    }
+
+    private static class StageTask implements Callable<BuildStage> {
+        private final BuildStage stage;
+        private final Callable<?> body;
+
+        private StageTask(BuildStage stage, Callable<?> body) {
+            this.stage = stage;
+            this.body = body;
+        }
+
+        public BuildStage call() throws StageError {
+            try {
+                body.call();
+                return stage;
+            } catch (Exception e) {
+                throw new StageError(stage, e);
+            }
+        }
+    }
+
+    // carries failed stage through future
+    private static class StageError extends Exception {
+        private static final long serialVersionUID = 6197452043152468873L;
+
+        private final BuildStage stage;
+        private final Exception cause;
+
+        private StageError(BuildStage stage, Exception cause) {
+            super(cause);
+            this.stage = stage;
+            this.cause = cause;
+        }
+    }
+}
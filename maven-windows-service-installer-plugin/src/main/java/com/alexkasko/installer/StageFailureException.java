@@ -0,0 +1,39 @@
+package com.alexkasko.installer;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Thrown when one or more build stages fail, holds errors of each failed stage
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class StageFailureException extends Exception {
+    private static final long serialVersionUID = 7516843950512694132L;
+
+    private final Map<BuildStage, Exception> failures;
+
+    /**
+     * @param failures errors keyed by failed stages, must not be empty
+     */
+    public StageFailureException(Map<BuildStage, Exception> failures) {
+        super(message(failures), failures.values().iterator().next());
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @return errors keyed by failed stages
+     */
+    public Map<BuildStage, Exception> getFailures() {
+        return failures;
+    }
+
+    private static String message(Map<BuildStage, Exception> failures) {
+        StringBuilder sb = new StringBuilder("Build stages failed:");
+        for(Map.Entry<BuildStage, Exception> en : failures.entrySet()) {
+            sb.append(" [").append(en.getKey().getId()).append(": ").append(en.getValue()).append("]");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,231 @@
+package com.alexkasko.installer;
+
+import java.io.File;
+
+/**
+ * Timing and I/O counters of a single build stage. Read and written bytes are computed
+ * from sizes of stage input and output files, staged files are accounted as read and written
+ * only if they were actually copied, hard-linked, reflinked and up-to-date files are counted
+ * separately. Compression counters, including counters per compression strategy, are set only
+ * by packing stages. Counters may be updated from multiple threads.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class StageMetrics {
+    /**
+     * Stage outcome
+     */
+    public enum Status {
+        RUN, SKIPPED, FAILED;
+
+        /**
+         * @return status name used in report
+         */
+        public String getId() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final BuildStage stage;
+    private final long startNanos = System.nanoTime();
+    private long wallMillis = -1;
+    private Status status;
+    private long filesRead;
+    private long bytesRead;
+    private long filesWritten;
+    private long bytesWritten;
+    private long filesLinked;
+    private long bytesLinked;
+    private long filesSkipped;
+    private long bytesSkipped;
+    private long uncompressedBytes;
+    private long compressedBytes;
+    private final CompressionStats compression = new CompressionStats();
+
+    /**
+     * Starts stage timer
+     *
+     * @param stage build stage
+     */
+    public StageMetrics(BuildStage stage) {
+        this.stage = stage;
+    }
+
+    /**
+     * Accounts stage input file or all files under input directory
+     *
+     * @param fileOrDir input file or directory
+     */
+    public synchronized void read(File fileOrDir) {
+        long[] counts = count(fileOrDir);
+        filesRead += counts[0];
+        bytesRead += counts[1];
+    }
+
+    /**
+     * Accounts stage inputs that are not plain files, e.g. classpath resources or archive entries
+     *
+     * @param files number of inputs
+     * @param bytes total inputs size
+     */
+    public synchronized void read(long files, long bytes) {
+        filesRead += files;
+        bytesRead += Math.max(bytes, 0);
+    }
+
+    /**
+     * Accounts stage output file or all files under output directory
+     *
+     * @param fileOrDir output file or directory
+     */
+    public synchronized void written(File fileOrDir) {
+        long[] counts = count(fileOrDir);
+        filesWritten += counts[0];
+        bytesWritten += counts[1];
+    }
+
+    /**
+     * Accounts stage outputs
+     *
+     * @param files output files or directories
+     */
+    public synchronized void written(Iterable<File> files) {
+        for(File fi : files) {
+            written(fi);
+        }
+    }
+
+    /**
+     * Accounts output file or directory that is a plain copy of the input of the same size
+     *
+     * @param fileOrDir copy destination
+     */
+    public synchronized void copied(File fileOrDir) {
+        read(fileOrDir);
+        written(fileOrDir);
+    }
+
+    /**
+     * Accounts files staged by {@link Staging}
+     *
+     * @param counts counts returned by staging
+     */
+    public synchronized void staged(Staging.Counts counts) {
+        filesRead += counts.getCopiedFiles();
+        bytesRead += counts.getCopiedBytes();
+        filesWritten += counts.getCopiedFiles();
+        bytesWritten += counts.getCopiedBytes();
+        filesLinked += counts.getLinkedFiles();
+        bytesLinked += counts.getLinkedBytes();
+        filesSkipped += counts.getSkippedFiles();
+        bytesSkipped += counts.getSkippedBytes();
+    }
+
+    /**
+     * Accounts archive written by stage
+     *
+     * @param uncompressed size of archived data
+     * @param compressed archive size
+     */
+    public synchronized void compressed(long uncompressed, long compressed) {
+        uncompressedBytes += uncompressed;
+        compressedBytes += compressed;
+    }
+
+    /**
+     * Stops stage timer
+     *
+     * @param status stage outcome
+     */
+    public synchronized void finish(Status status) {
+        this.status = status;
+        this.wallMillis = (System.nanoTime() - startNanos) / 1000000;
+    }
+
+    public BuildStage getStage() {
+        return stage;
+    }
+
+    public synchronized Status getStatus() {
+        return status;
+    }
+
+    public synchronized long getWallMillis() {
+        return wallMillis;
+    }
+
+    public synchronized long getFilesRead() {
+        return filesRead;
+    }
+
+    public synchronized long getBytesRead() {
+        return bytesRead;
+    }
+
+    public synchronized long getFilesWritten() {
+        return filesWritten;
+    }
+
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * @return number of hard-linked or reflinked files
+     */
+    public synchronized long getFilesLinked() {
+        return filesLinked;
+    }
+
+    public synchronized long getBytesLinked() {
+        return bytesLinked;
+    }
+
+    /**
+     * @return number of staged files skipped as up-to-date
+     */
+    public synchronized long getFilesSkipped() {
+        return filesSkipped;
+    }
+
+    public synchronized long getBytesSkipped() {
+        return bytesSkipped;
+    }
+
+    public synchronized long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    public synchronized long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    /**
+     * @return compressed to uncompressed size ratio, negative if stage wrote no archives
+     */
+    public synchronized double getCompressionRatio() {
+        return uncompressedBytes > 0 ? (double) compressedBytes / uncompressedBytes : -1;
+    }
+
+    /**
+     * @return per-strategy compression counters of archives written by stage
+     */
+    public CompressionStats getCompression() {
+        return compression;
+    }
+
+    private static long[] count(File fileOrDir) {
+        long[] res = new long[2];
+        if(fileOrDir.isFile()) {
+            res[0] = 1;
+            res[1] = fileOrDir.length();
+        } else if(fileOrDir.isDirectory()) {
+            for(File fi : Archives.listTree(fileOrDir).values()) {
+                res[0] += 1;
+                res[1] += fi.length();
+            }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,294 @@
+package com.alexkasko.installer;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import ru.concerteza.util.io.CtzCopyCheckLMUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static ru.concerteza.util.io.CtzIOUtils.mkdirs;
+
+/**
+ * Copies files into staging directories. Besides plain copying, files may be hard-linked
+ * or reflinked (copy-on-write clones), staged files are read-only inputs for IzPack compiler
+ * and archivers, so sharing data blocks with sources is safe. Linking falls back
+ * to copying if it's not supported by JVM or file system.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class Staging {
+    /**
+     * Staging modes
+     */
+    public enum Mode {
+        /**
+         * Byte copies, files with the same modification time are skipped
+         */
+        COPY,
+        /**
+         * Hard links, requires Java 7 runtime and the same file system for source and target
+         */
+        LINK,
+        /**
+         * Copy-on-write clones made with 'cp --reflink=always', requires GNU coreutils
+         * and file system with reflink support (btrfs, xfs)
+         */
+        REFLINK
+    }
+
+    private static final Method TO_PATH;
+    private static final Method CREATE_LINK;
+
+    static {
+        Method toPath = null;
+        Method createLink = null;
+        try {
+            // java.nio.file is not available in Java 6
+            Class<?> pathClass = Class.forName("java.nio.file.Path");
+            Class<?> filesClass = Class.forName("java.nio.file.Files");
+            toPath = File.class.getMethod("toPath");
+            createLink = filesClass.getMethod("createLink", pathClass, pathClass);
+        } catch (Exception e) {
+            toPath = null;
+            createLink = null;
+        }
+        TO_PATH = toPath;
+        CREATE_LINK = createLink;
+    }
+
+    private final Mode mode;
+    private final Log log;
+    private volatile boolean fallbackReported = false;
+    private volatile boolean reflinkUnsupported = false;
+
+    /**
+     * @param mode staging mode name, case insensitive
+     * @param log maven log
+     * @throws MojoExecutionException on unknown mode name
+     */
+    public Staging(String mode, Log log) throws MojoExecutionException {
+        this.mode = parseMode(mode);
+        this.log = log;
+        if(Mode.LINK == this.mode && null == CREATE_LINK) {
+            log.warn("Hard links are not supported by current JVM, files will be copied");
+        }
+    }
+
+    private static Mode parseMode(String mode) throws MojoExecutionException {
+        for(Mode mo : Mode.values()) {
+            if(mo.name().equals(mode.trim().toUpperCase(Locale.ENGLISH))) return mo;
+        }
+        throw new MojoExecutionException("Unknown staging mode: [" + mode + "], must be one of: " +
+                "'copy', 'link', 'reflink'");
+    }
+
+    /**
+     * @param src source file
+     * @param dest target file
+     * @return counts of copied, linked and skipped files
+     * @throws IOException on IO error
+     */
+    public Counts copyFile(File src, File dest) throws IOException {
+        Counts res = new Counts();
+        if(upToDate(src, dest)) {
+            res.skippedFiles = 1;
+            res.skippedBytes = dest.length();
+            return res;
+        }
+        mkdirs(dest.getAbsoluteFile().getParentFile());
+        boolean linked;
+        switch(mode) {
+            case LINK:
+                linked = link(src, dest);
+                break;
+            case REFLINK:
+                linked = reflink(src, dest);
+                break;
+            default:
+                linked = false;
+        }
+        if(linked) {
+            res.linkedFiles = 1;
+            res.linkedBytes = src.length();
+        } else {
+            replaceWithCopy(src, dest);
+            res.copiedFiles = 1;
+            res.copiedBytes = src.length();
+        }
+        return res;
+    }
+
+    /**
+     * @param src source file
+     * @param destDir target directory
+     * @return counts of copied, linked and skipped files
+     * @throws IOException on IO error
+     */
+    public Counts copyFileToDirectory(File src, File destDir) throws IOException {
+        return copyFile(src, new File(destDir, src.getName()));
+    }
+
+    /**
+     * @param src source directory
+     * @param dest target directory, contents of source will be placed directly into it
+     * @return counts of copied, linked and skipped files
+     * @throws IOException on IO error
+     */
+    public Counts copyDirectory(File src, File dest) throws IOException {
+        Counts res = new Counts();
+        mkdirs(dest);
+        Map<String, File> tree = Archives.listTree(src);
+        // single process for the whole tree
+        if(Mode.REFLINK == mode && reflink(new File(src, "."), dest, "-R")) {
+            for(File fi : tree.values()) {
+                res.linkedFiles += 1;
+                res.linkedBytes += fi.length();
+            }
+            return res;
+        }
+        // file by file, staged files left by the build in another mode are replaced, not overwritten
+        for(Map.Entry<String, File> en : tree.entrySet()) {
+            res.add(copyFile(en.getValue(), new File(dest, en.getKey())));
+        }
+        return res;
+    }
+
+    /**
+     * @param src source directory
+     * @param destDir target parent directory, source will be placed into it as a subdirectory
+     * @return counts of copied, linked and skipped files
+     * @throws IOException on IO error
+     */
+    public Counts copyDirectoryToDirectory(File src, File destDir) throws IOException {
+        return copyDirectory(src, new File(destDir, src.getName()));
+    }
+
+    // hard link and reflink share modification time with source, copy preserves it
+    private static boolean upToDate(File src, File dest) {
+        return dest.isFile() && dest.length() == src.length() && dest.lastModified() == src.lastModified();
+    }
+
+    private boolean link(File src, File dest) throws IOException {
+        if(null == CREATE_LINK) return false;
+        deleteExisting(dest);
+        try {
+            CREATE_LINK.invoke(null, TO_PATH.invoke(dest), TO_PATH.invoke(src));
+            return true;
+        } catch (InvocationTargetException e) {
+            // cross-device links, FAT file systems etc
+            reportFallback(e.getCause());
+            return false;
+        } catch (IllegalAccessException e) {
+            reportFallback(e);
+            return false;
+        }
+    }
+
+    private boolean reflink(File src, File dest, String... flags) throws IOException {
+        if(reflinkUnsupported) return false;
+        List<String> command = new ArrayList<String>();
+        command.add("cp");
+        command.addAll(asList(flags));
+        // existing file may be a hard link, it must not be overwritten in place
+        command.addAll(asList("--reflink=always", "--preserve=timestamps", "--remove-destination"));
+        command.add(src.getAbsolutePath());
+        command.add(dest.getAbsolutePath());
+        try {
+            Process pr = new ProcessBuilder(command).redirectErrorStream(true).start();
+            pr.getOutputStream().close();
+            // output is not expected to be large
+            byte[] buf = new byte[1024];
+            while(-1 != pr.getInputStream().read(buf)) {
+                // drain
+            }
+            if(0 == pr.waitFor()) return true;
+            reflinkUnsupported = true;
+            reportFallback(new IOException("'cp --reflink=always' exited with code: [" + pr.exitValue() + "]"));
+            return false;
+        } catch (IOException e) {
+            reflinkUnsupported = true;
+            reportFallback(e);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while staging file: [" + src.getAbsolutePath() + "]");
+        }
+    }
+
+    private static void replaceWithCopy(File src, File dest) throws IOException {
+        deleteExisting(dest);
+        CtzCopyCheckLMUtils.copyFile(src, dest);
+    }
+
+    private static void deleteExisting(File dest) throws IOException {
+        // existing file may be a link to another source, it must not be overwritten in place
+        if(dest.exists() && !dest.delete()) throw new IOException("Cannot delete staged file: [" + dest.getAbsolutePath() + "]");
+    }
+
+    private void reportFallback(Throwable cause) {
+        if(fallbackReported) return;
+        fallbackReported = true;
+        log.warn("Staging mode [" + mode.name().toLowerCase() + "] is not supported for some files, " +
+                "falling back to copying, cause: " + cause);
+    }
+
+    /**
+     * Files staged by a single call, only copied files are actually read and written,
+     * linked and skipped (up-to-date) files cost no data IO
+     */
+    public static class Counts {
+        private long copiedFiles;
+        private long copiedBytes;
+        private long linkedFiles;
+        private long linkedBytes;
+        private long skippedFiles;
+        private long skippedBytes;
+
+        /**
+         * @param other counts to add to this one
+         * @return this instance
+         */
+        public Counts add(Counts other) {
+            copiedFiles += other.copiedFiles;
+            copiedBytes += other.copiedBytes;
+            linkedFiles += other.linkedFiles;
+            linkedBytes += other.linkedBytes;
+            skippedFiles += other.skippedFiles;
+            skippedBytes += other.skippedBytes;
+            return this;
+        }
+
+        public long getCopiedFiles() {
+            return copiedFiles;
+        }
+
+        public long getCopiedBytes() {
+            return copiedBytes;
+        }
+
+        public long getLinkedFiles() {
+            return linkedFiles;
+        }
+
+        public long getLinkedBytes() {
+            return linkedBytes;
+        }
+
+        public long getSkippedFiles() {
+            return skippedFiles;
+        }
+
+        public long getSkippedBytes() {
+            return skippedBytes;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.alexkasko.installer;
+
+import com.izforge.izpack.compiler.CompilerException;
+import com.izforge.izpack.compiler.Packager;
+import com.izforge.izpack.util.JarOutputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.tools.zip.ZipEntry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+
+/**
+ * IzPack packager that writes installer jar into the stream bound to the current thread
+ * instead of the output file, used to write IzPack output directly into installer zip
+ * as a STORED entry.
+ * Falls back to standard file output if no stream is bound or if packs are to be written
+ * into separate web jars.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class StreamingPackager extends Packager {
+    private static final ThreadLocal<Target> TARGET = new ThreadLocal<Target>();
+
+    /**
+     * Constructor called by IzPack compiler
+     *
+     * @throws CompilerException on packager init error
+     */
+    public StreamingPackager() throws CompilerException {
+        super();
+    }
+
+    /**
+     * Binds output stream to the current thread, stream won't be closed by packager
+     *
+     * @param out output stream
+     * @param level deflate level for packs
+     * @return target that tells whether stream was actually used by packager
+     */
+    public static Target bind(OutputStream out, int level) {
+        Target target = new Target(out, level);
+        TARGET.set(target);
+        return target;
+    }
+
+    /**
+     * Unbinds output stream from the current thread
+     */
+    public static void unbind() {
+        TARGET.remove();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void createInstaller(File file) throws Exception {
+        Target target = TARGET.get();
+        if(null == target || null != info.getWebDirURL()) {
+            super.createInstaller(file);
+            return;
+        }
+        String name = file.getName();
+        baseFile = new File(file.getParentFile(), name.endsWith(".jar") ? name.substring(0, name.length() - 4) : name);
+        info.setInstallerBase(baseFile.getName());
+        packJarsSeparate = false;
+        sendMsg("Streaming installer jar into installer archive");
+        // the same settings as in Packager#getJarOutputStream
+        JarOutputStream jar = new StreamingJarOutputStream(new CloseShieldOutputStream(target.out), target.level);
+        jar.setPreventClose(true);
+        setPrimaryJarStream(jar);
+        sendStart();
+        writeInstaller();
+        jar.closeAlways();
+        sendStop();
+        target.used = true;
+    }
+
+    // field is private in IzPack 4.3.x
+    private void setPrimaryJarStream(JarOutputStream jar) throws Exception {
+        Field field = Packager.class.getDeclaredField("primaryJarStream");
+        field.setAccessible(true);
+        field.set(this, jar);
+    }
+
+    /**
+     * Jar stream for non-seekable output. Packs are written as STORED entries
+     * with unknown sizes that require seekable output, they are deflated instead,
+     * so installer jar itself may be stored without recompression.
+     */
+    private static class StreamingJarOutputStream extends JarOutputStream {
+        private final int packsLevel;
+
+        private StreamingJarOutputStream(OutputStream out, int packsLevel) throws IOException {
+            super(out);
+            this.packsLevel = packsLevel;
+        }
+
+        @Override
+        public void putNextEntry(ZipEntry ze) throws IOException {
+            if(ZipEntry.STORED == ze.getMethod() && -1 == ze.getSize()) {
+                ze.setMethod(ZipEntry.DEFLATED);
+                setLevel(packsLevel);
+            } else {
+                setLevel(9);
+            }
+            super.putNextEntry(ze);
+        }
+    }
+
+    /**
+     * Output stream bound to thread
+     */
+    public static class Target {
+        private final OutputStream out;
+        private final int level;
+        private volatile boolean used = false;
+
+        private Target(OutputStream out, int level) {
+            this.out = out;
+            this.level = level;
+        }
+
+        /**
+         * @return whether installer jar was written into bound stream
+         */
+        public boolean isUsed() {
+            return used;
+        }
+    }
+}
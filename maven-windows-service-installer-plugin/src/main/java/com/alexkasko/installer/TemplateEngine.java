@@ -0,0 +1,126 @@
+package com.alexkasko.installer;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateExceptionHandler;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.UnhandledException;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.apache.commons.io.FileUtils.openOutputStream;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static ru.concerteza.util.string.CtzConstants.UTF8;
+
+/**
+ * Renders FreeMarker templates against immutable model snapshot. Parsed templates are cached
+ * by name and content digest in static cache, so they are shared between plugin executions
+ * in multi-module reactor. Engine is thread-safe, templates may be rendered concurrently.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class TemplateEngine {
+    private static final Configuration CONFIGURATION = createConfiguration();
+    private static final ConcurrentMap<String, Template> CACHE = new ConcurrentHashMap<String, Template>();
+
+    private final Map<String, Object> model;
+
+    /**
+     * @param model template model, must not be modified after engine is created
+     */
+    public TemplateEngine(Map<String, Object> model) {
+        this.model = Collections.unmodifiableMap(model);
+    }
+
+    /**
+     * Reads all bean properties once, so templates do not reflect over bean
+     * and getters that read files are not called on each access
+     *
+     * @param bean model bean
+     * @param stopClass properties declared in this class and its superclasses are ignored
+     * @return property values keyed by property names
+     */
+    public static Map<String, Object> snapshot(Object bean, Class<?> stopClass) {
+        try {
+            BeanInfo info = Introspector.getBeanInfo(bean.getClass(), stopClass);
+            Map<String, Object> res = new HashMap<String, Object>();
+            for(PropertyDescriptor pd : info.getPropertyDescriptors()) {
+                Method getter = pd.getReadMethod();
+                if(null == getter) continue;
+                res.put(pd.getName(), getter.invoke(bean));
+            }
+            return res;
+        } catch (IntrospectionException e) {
+            throw new UnhandledException(e);
+        } catch (IllegalAccessException e) {
+            throw new UnhandledException(e);
+        } catch (InvocationTargetException e) {
+            throw new UnhandledException(e.getCause());
+        }
+    }
+
+    /**
+     * Renders template into file
+     *
+     * @param name template name used in error messages
+     * @param template template source, read as UTF-8 and closed
+     * @param file output file
+     * @param encoding output encoding
+     * @return template source size in bytes
+     * @throws IOException on IO or template error
+     */
+    public long render(String name, InputStream template, File file, String encoding) throws IOException {
+        byte[] source;
+        try {
+            source = IOUtils.toByteArray(template);
+        } finally {
+            closeQuietly(template);
+        }
+        Template parsed = parse(name, source);
+        Writer writer = null;
+        try {
+            writer = new BufferedWriter(new OutputStreamWriter(openOutputStream(file), encoding));
+            parsed.process(model, writer);
+            writer.close();
+        } catch (TemplateException e) {
+            throw new IOException("Error rendering template: [" + name + "]", e);
+        } finally {
+            closeQuietly(writer);
+        }
+        return source.length;
+    }
+
+    private static Template parse(String name, byte[] source) throws IOException {
+        MessageDigest digest = Digests.sha1();
+        digest.update(source);
+        String key = name + ":" + Digests.toHex(digest.digest());
+        Template existed = CACHE.get(key);
+        if(null != existed) return existed;
+        // parsed twice at worst on concurrent miss, both instances are equal
+        Template parsed = new Template(name, new InputStreamReader(new ByteArrayInputStream(source), UTF8), CONFIGURATION);
+        existed = CACHE.putIfAbsent(key, parsed);
+        return null != existed ? existed : parsed;
+    }
+
+    private static Configuration createConfiguration() {
+        Configuration res = new Configuration();
+        res.setLocalizedLookup(false);
+        res.setTagSyntax(Configuration.AUTO_DETECT_TAG_SYNTAX);
+        res.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        return res;
+    }
+}
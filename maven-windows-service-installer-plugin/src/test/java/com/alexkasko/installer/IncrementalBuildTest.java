@@ -0,0 +1,67 @@
+package com.alexkasko.installer;
+
+import junit.framework.TestCase;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class IncrementalBuildTest extends TestCase {
+    private File dir;
+
+    @Override
+    protected void setUp() throws IOException {
+        dir = new File(FileUtils.getTempDirectory(), "incremental-build-test-" + UUID.randomUUID());
+        FileUtils.forceMkdir(dir);
+    }
+
+    @Override
+    protected void tearDown() {
+        FileUtils.deleteQuietly(dir);
+    }
+
+    public void testDownstreamRunsAfterFailedBuild() throws IOException {
+        File manifest = new File(dir, "manifest.properties");
+        File output = new File(dir, "output");
+        FileUtils.touch(output);
+        // first build runs all stages
+        IncrementalBuild first = IncrementalBuild.enabled(manifest, new SystemStreamLog());
+        for(BuildStage st : new BuildStage[]{BuildStage.LIBS, BuildStage.CLASSPATH, BuildStage.DIST}) {
+            Fingerprint fp = first.fingerprint().add(st.getId());
+            assertTrue(first.needsRun(st, fp, output));
+            first.done(st, fp);
+        }
+        // second build reruns libs and fails before downstream stages are run
+        IncrementalBuild failed = IncrementalBuild.enabled(manifest, new SystemStreamLog());
+        Fingerprint libsChanged = failed.fingerprint().add("libs changed");
+        assertTrue(failed.needsRun(BuildStage.LIBS, libsChanged, output));
+        failed.done(BuildStage.LIBS, libsChanged);
+        // third build has nothing changed but must not skip downstream stages
+        IncrementalBuild next = IncrementalBuild.enabled(manifest, new SystemStreamLog());
+        assertFalse(next.needsRun(BuildStage.LIBS, next.fingerprint().add("libs changed"), output));
+        assertTrue(next.needsRun(BuildStage.CLASSPATH, next.fingerprint().add(BuildStage.CLASSPATH.getId()), output));
+        assertTrue(next.needsRun(BuildStage.DIST, next.fingerprint().add(BuildStage.DIST.getId()), output));
+    }
+
+    public void testUnrelatedStageIsSkipped() throws IOException {
+        File manifest = new File(dir, "manifest.properties");
+        File output = new File(dir, "output");
+        FileUtils.touch(output);
+        IncrementalBuild first = IncrementalBuild.enabled(manifest, new SystemStreamLog());
+        for(BuildStage st : new BuildStage[]{BuildStage.LIBS, BuildStage.JRE}) {
+            Fingerprint fp = first.fingerprint().add(st.getId());
+            assertTrue(first.needsRun(st, fp, output));
+            first.done(st, fp);
+        }
+        IncrementalBuild failed = IncrementalBuild.enabled(manifest, new SystemStreamLog());
+        assertTrue(failed.needsRun(BuildStage.LIBS, failed.fingerprint().add("libs changed"), output));
+        IncrementalBuild next = IncrementalBuild.enabled(manifest, new SystemStreamLog());
+        assertFalse(next.needsRun(BuildStage.JRE, next.fingerprint().add(BuildStage.JRE.getId()), output));
+    }
+}
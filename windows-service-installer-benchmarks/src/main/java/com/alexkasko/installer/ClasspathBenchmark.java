@@ -0,0 +1,109 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classpath assembly from application {@code lib} directory, and the cost of a resource
+ * lookup in a fresh class loader through plain classpath, through classpath jar
+ * and through single merged jar
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClasspathBenchmark {
+    @Param({"20", "100"})
+    private int jarsCount;
+
+    private File workDir;
+    private File libDir;
+    private URL[] urls;
+    private URL[] classpathJarUrls;
+    private URL[] mergedJarUrls;
+    private String lastResource;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        workDir = SyntheticFiles.tempDir("classpath-benchmark");
+        libDir = new File(workDir, "lib");
+        SyntheticFiles.libDir(libDir, jarsCount, 50);
+        File[] jars = jars();
+        urls = new URL[jars.length];
+        for(int i = 0; i < jars.length; i++) {
+            urls[i] = jars[i].toURI().toURL();
+        }
+        lastResource = "pkg" + (jarsCount - 1) + "/Class49.class";
+        LinkedHashMap<String, File> entries = new LinkedHashMap<String, File>();
+        for(File jar : jars) {
+            entries.put("../lib/" + jar.getName(), jar);
+        }
+        File classpathJar = new File(workDir, "bin/classpath.jar");
+        ClasspathJar.write(classpathJar, entries, null);
+        classpathJarUrls = new URL[]{classpathJar.toURI().toURL()};
+        File mergedJar = new File(workDir, "merged/app-merged.jar");
+        FileUtils.forceMkdir(mergedJar.getParentFile());
+        new JarMerger(null, false, new SystemStreamLog()).merge(Arrays.asList(jars), mergedJar);
+        mergedJarUrls = new URL[]{mergedJar.toURI().toURL()};
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FileUtils.deleteQuietly(workDir);
+    }
+
+    @Benchmark
+    public String assemble() {
+        StringBuilder sb = new StringBuilder(new File(workDir, "bin/launcher.jar").getPath());
+        for(File jar : jars()) {
+            sb.append(File.pathSeparator).append(jar.getPath());
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public URL lookupInLastJar() throws IOException {
+        return lookup(urls);
+    }
+
+    @Benchmark
+    public URL lookupInLastJarThroughClasspathJar() throws IOException {
+        return lookup(classpathJarUrls);
+    }
+
+    @Benchmark
+    public URL lookupInLastJarThroughMergedJar() throws IOException {
+        return lookup(mergedJarUrls);
+    }
+
+    private URL lookup(URL[] classpath) throws IOException {
+        URLClassLoader loader = new URLClassLoader(classpath, null);
+        try {
+            URL res = loader.getResource(lastResource);
+            if(null == res) throw new IllegalStateException("Resource not found: [" + lastResource + "]");
+            return res;
+        } finally {
+            loader.close();
+        }
+    }
+
+    private File[] jars() {
+        File[] res = libDir.listFiles();
+        Arrays.sort(res);
+        return res;
+    }
+}
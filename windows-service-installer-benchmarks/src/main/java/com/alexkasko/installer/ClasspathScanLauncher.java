@@ -0,0 +1,46 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.lang.UnhandledException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Launcher that reads all synthetic class entries from the system classpath on startup,
+ * used to measure classpath lookup cost on daemon startup, see {@link ClasspathStartupBenchmark}
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class ClasspathScanLauncher implements DaemonLauncher {
+    static final String JARS_PROPERTY = "installer.benchmark.jarsCount";
+    static final String ENTRIES_PROPERTY = "installer.benchmark.entriesCount";
+
+    public void startDaemon() {
+        int jars = Integer.parseInt(System.getProperty(JARS_PROPERTY));
+        int entries = Integer.parseInt(System.getProperty(ENTRIES_PROPERTY));
+        byte[] buf = new byte[4096];
+        for(int i = 0; i < jars; i++) {
+            for(int j = 0; j < entries; j++) {
+                String name = "pkg" + i + "/Class" + j + ".class";
+                InputStream is = ClassLoader.getSystemResourceAsStream(name);
+                if(null == is) throw new IllegalStateException("Resource not found: [" + name + "]");
+                try {
+                    while(-1 != is.read(buf)) {
+                        // read fully like class loader does
+                    }
+                } catch (IOException e) {
+                    throw new UnhandledException(e);
+                } finally {
+                    closeQuietly(is);
+                }
+            }
+        }
+    }
+
+    public void stopDaemon() {
+        // no-op
+    }
+}
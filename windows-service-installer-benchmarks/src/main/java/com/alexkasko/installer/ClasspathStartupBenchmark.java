@@ -0,0 +1,121 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daemon startup time in a separate JVM with application jars referenced from classpath jar
+ * and with single merged jar. Time is measured from process start until ready file is written,
+ * launcher reads all class entries of application jars on startup, see {@link ClasspathScanLauncher}.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class ClasspathStartupBenchmark {
+    private static final int ENTRIES_COUNT = 50;
+    private static final long READY_TIMEOUT_MILLIS = 60000;
+
+    @Param({"20", "100"})
+    private int jarsCount;
+
+    @Param({"classpathJar", "mergedJar"})
+    private String layout;
+
+    private File workDir;
+    private File readyFile;
+    private File logFile;
+    private List<String> command;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        workDir = SyntheticFiles.tempDir("classpath-startup-benchmark");
+        File libDir = new File(workDir, "lib");
+        SyntheticFiles.libDir(libDir, jarsCount, ENTRIES_COUNT);
+        File[] jars = libDir.listFiles();
+        Arrays.sort(jars);
+        File appJar;
+        if("classpathJar".equals(layout)) {
+            LinkedHashMap<String, File> entries = new LinkedHashMap<String, File>();
+            for(File jar : jars) {
+                entries.put("../lib/" + jar.getName(), jar);
+            }
+            appJar = new File(workDir, "bin/classpath.jar");
+            ClasspathJar.write(appJar, entries, null);
+        } else if("mergedJar".equals(layout)) {
+            appJar = new File(workDir, "merged/app-merged.jar");
+            FileUtils.forceMkdir(appJar.getParentFile());
+            new JarMerger(null, false, new SystemStreamLog()).merge(Arrays.asList(jars), appJar);
+        } else {
+            throw new IllegalArgumentException("Unknown layout: [" + layout + "]");
+        }
+        // launcher classes are taken from benchmarks jar itself
+        File launcherJar = new File(ClasspathScanLauncher.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        readyFile = new File(workDir, "daemon.ready");
+        logFile = new File(workDir, "daemon.log");
+        command = new ArrayList<String>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.add("-D" + StandardLauncher.READY_FILE_PROPERTY + "=" + readyFile.getPath());
+        command.add("-D" + ClasspathScanLauncher.JARS_PROPERTY + "=" + jarsCount);
+        command.add("-D" + ClasspathScanLauncher.ENTRIES_PROPERTY + "=" + ENTRIES_COUNT);
+        command.add("-cp");
+        command.add(launcherJar.getPath() + File.pathSeparator + appJar.getPath());
+        command.add(StandardLauncher.class.getName());
+        command.add("start");
+        command.add(ClasspathScanLauncher.class.getName());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FileUtils.deleteQuietly(workDir);
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopDaemon() throws InterruptedException {
+        if(null == process) return;
+        // shutdown hook stops launcher and deletes ready file
+        process.destroy();
+        process.waitFor();
+        process = null;
+        readyFile.delete();
+    }
+
+    @Benchmark
+    public long startToReady() throws Exception {
+        long start = System.nanoTime();
+        process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(logFile).start();
+        long deadline = System.currentTimeMillis() + READY_TIMEOUT_MILLIS;
+        while(!readyFile.exists()) {
+            if(!isAlive(process)) throw new IllegalStateException("Daemon exited on startup, log: [" +
+                    FileUtils.readFileToString(logFile, "UTF-8") + "]");
+            if(System.currentTimeMillis() > deadline) throw new IllegalStateException("Daemon ready timeout, log: [" +
+                    FileUtils.readFileToString(logFile, "UTF-8") + "]");
+            Thread.sleep(1);
+        }
+        return System.nanoTime() - start;
+    }
+
+    // Process.isAlive() is available only since Java 8
+    private static boolean isAlive(Process process) {
+        try {
+            process.exitValue();
+            return false;
+        } catch (IllegalThreadStateException e) {
+            return true;
+        }
+    }
+}
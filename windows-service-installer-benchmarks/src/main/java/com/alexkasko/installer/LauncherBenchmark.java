@@ -0,0 +1,28 @@
+package com.alexkasko.installer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Start/stop latency of {@link LauncherGroup} with a launcher that does nothing, group is used
+ * directly because {@link StandardLauncher} can be started only once during JVM lifetime
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LauncherBenchmark {
+
+    @Benchmark
+    public boolean startStop() throws Exception {
+        LauncherGroup group = LauncherGroup.create(NoopLauncher.class.getName());
+        group.start();
+        return group.stop();
+    }
+}
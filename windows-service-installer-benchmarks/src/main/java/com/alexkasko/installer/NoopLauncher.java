@@ -0,0 +1,17 @@
+package com.alexkasko.installer;
+
+/**
+ * Launcher that does nothing, used to measure {@link StandardLauncher} own overhead
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class NoopLauncher implements DaemonLauncher {
+    public void startDaemon() {
+        // no-op
+    }
+
+    public void stopDaemon() {
+        // no-op
+    }
+}
@@ -0,0 +1,106 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import static org.apache.commons.io.FileUtils.openOutputStream;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Packing of JRE-sized tree into installer zip and distribution tgz, the same way
+ * as {@code packInstaller} and {@code packDist} do, with different parallelism.
+ * Installer zip is written both with all entries deflated and with content-aware policy
+ * that stores jars
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PackBenchmark {
+    @Param({"128"})
+    private int treeSizeMb;
+    @Param({"1", "2", "4"})
+    private int parallelism;
+
+    private File workDir;
+    private File tree;
+    private File target;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        workDir = SyntheticFiles.tempDir("pack-benchmark");
+        tree = new File(workDir, "jre");
+        SyntheticFiles.jreTree(tree, treeSizeMb);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FileUtils.deleteQuietly(workDir);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteTarget() {
+        if(null != target) FileUtils.deleteQuietly(target);
+    }
+
+    @Benchmark
+    public long zip() throws IOException {
+        return zip(CompressionPolicy.deflateAll());
+    }
+
+    @Benchmark
+    public long zipContentAware() throws IOException {
+        return zip(CompressionPolicy.of(6, CompressionPolicy.DEFAULT_STORED_EXTENSIONS));
+    }
+
+    private long zip(CompressionPolicy policy) throws IOException {
+        target = new File(workDir, "installer.zip");
+        ZipArchiveOutputStream zip = null;
+        try {
+            zip = new ZipArchiveOutputStream(target);
+            Archives.zipTree(tree, "installer/jre", zip, parallelism, policy, new CompressionStats());
+            zip.finish();
+        } finally {
+            closeQuietly(zip);
+        }
+        return target.length();
+    }
+
+    @Benchmark
+    public long tarGzip() throws IOException {
+        target = new File(workDir, "dist.tgz");
+        TarArchiveOutputStream tar = null;
+        try {
+            OutputStream out = openOutputStream(target);
+            OutputStream gzip = parallelism > 1 ? new ParallelGzipOutputStream(out, parallelism, Deflater.DEFAULT_COMPRESSION) :
+                    new GZIPOutputStream(out);
+            tar = new TarArchiveOutputStream(gzip);
+            tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_GNU);
+            for(Map.Entry<String, File> en : Archives.listTree(tree).entrySet()) {
+                tar.putArchiveEntry(new TarArchiveEntry(en.getValue(), "dist/" + en.getKey()));
+                FileUtils.copyFile(en.getValue(), tar);
+                tar.closeArchiveEntry();
+            }
+            tar.close();
+        } finally {
+            closeQuietly(tar);
+        }
+        return target.length();
+    }
+}
@@ -0,0 +1,124 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+import static org.apache.commons.io.FileUtils.openOutputStream;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Generates reproducible benchmark inputs
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+class SyntheticFiles {
+    private static final String[] WORDS = {"java/lang/Object", "<init>", "Code", "LineNumberTable", "this",
+            "java/util/List", "()V", "(Ljava/lang/String;)V", "SourceFile", "StackMapTable", "get", "set", "value"};
+
+    private SyntheticFiles() {
+    }
+
+    /**
+     * Creates empty temporary directory
+     *
+     * @param prefix directory name prefix
+     * @return created directory
+     * @throws IOException on IO error
+     */
+    static File tempDir(String prefix) throws IOException {
+        File file = File.createTempFile(prefix, "");
+        if(!file.delete() || !file.mkdirs()) throw new IOException("Cannot create temp dir: [" + file.getAbsolutePath() + "]");
+        return file;
+    }
+
+    /**
+     * Writes directory tree shaped like JRE: few large jars holding most of the size,
+     * native libraries and many small resource files
+     *
+     * @param dir target directory
+     * @param sizeMb approximate total size
+     * @throws IOException on IO error
+     */
+    static void jreTree(File dir, int sizeMb) throws IOException {
+        Random random = new Random(42);
+        long total = sizeMb * 1024L * 1024L;
+        writeFile(new File(dir, "lib/rt.jar"), total * 6 / 10, random);
+        writeFile(new File(dir, "lib/charsets.jar"), total / 10, random);
+        writeFile(new File(dir, "lib/ext/localedata.jar"), total / 20, random);
+        for(int i = 0; i < 40; i++) {
+            writeFile(new File(dir, "bin/lib" + i + ".dll"), total / 10 / 40, random);
+        }
+        for(int i = 0; i < 600; i++) {
+            writeFile(new File(dir, "lib/res/" + (i % 20) + "/file" + i + ".properties"), total * 15 / 100 / 600, random);
+        }
+    }
+
+    /**
+     * Writes directory with small jars each containing a number of class-like entries
+     *
+     * @param dir target directory
+     * @param count number of jars
+     * @param entries number of entries in each jar
+     * @throws IOException on IO error
+     */
+    static void libDir(File dir, int count, int entries) throws IOException {
+        Random random = new Random(42);
+        FileUtils.forceMkdir(dir);
+        for(int i = 0; i < count; i++) {
+            ZipArchiveOutputStream zip = null;
+            try {
+                zip = new ZipArchiveOutputStream(new File(dir, "lib" + i + ".jar"));
+                for(int j = 0; j < entries; j++) {
+                    zip.putArchiveEntry(new ZipArchiveEntry("pkg" + i + "/Class" + j + ".class"));
+                    zip.write(content(2048, random));
+                    zip.closeArchiveEntry();
+                }
+                zip.finish();
+            } finally {
+                closeQuietly(zip);
+            }
+        }
+    }
+
+    private static void writeFile(File file, long size, Random random) throws IOException {
+        OutputStream os = null;
+        try {
+            os = openOutputStream(file);
+            long left = size;
+            while(left > 0) {
+                int len = (int) Math.min(left, 64 * 1024);
+                os.write(content(len, random));
+                left -= len;
+            }
+        } finally {
+            closeQuietly(os);
+        }
+    }
+
+    // roughly half of the data is compressible text, the rest is random like compiled code
+    private static byte[] content(int len, Random random) {
+        byte[] res = new byte[len];
+        int pos = 0;
+        while(pos < len) {
+            if(random.nextBoolean()) {
+                byte[] word = WORDS[random.nextInt(WORDS.length)].getBytes();
+                int count = Math.min(word.length, len - pos);
+                System.arraycopy(word, 0, res, pos, count);
+                pos += count;
+            } else {
+                int count = Math.min(1 + random.nextInt(16), len - pos);
+                for(int i = 0; i < count; i++) {
+                    res[pos++] = (byte) random.nextInt();
+                }
+            }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,117 @@
+package com.alexkasko.installer;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.AbstractMojo;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.Resource;
+import ru.concerteza.util.freemarker.FreemarkerEngine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.commons.io.FileUtils.openOutputStream;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static ru.concerteza.util.io.CtzResourceUtils.RESOURCE_RESOLVER;
+import static ru.concerteza.util.string.CtzConstants.UTF8;
+
+/**
+ * Rendering of all bundled FreeMarker templates into files with installer mojo as a model,
+ * with parsing on each render and bean model, and with {@link TemplateEngine} that caches
+ * parsed templates and reads model snapshot once per execution
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TemplateBenchmark {
+    private final FreemarkerEngine freemarker = new FreemarkerEngine();
+    private final List<Resource> templates = new ArrayList<Resource>();
+    private InstallerMojo model;
+    private File workDir;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        workDir = SyntheticFiles.tempDir("template-benchmark");
+        for(String pattern : new String[]{"classpath:/bin/*.ftl", "classpath:/izpack/*.ftl", "classpath:/prunsrv/*.ftl"}) {
+            for(Resource re : RESOURCE_RESOLVER.getResources(pattern)) {
+                templates.add(re);
+            }
+        }
+        if(templates.isEmpty()) throw new IllegalStateException("No templates found on classpath");
+        model = new InstallerMojo();
+        populate(model);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FileUtils.deleteQuietly(workDir);
+    }
+
+    @Benchmark
+    public long render() throws IOException {
+        long res = 0;
+        for(Resource re : templates) {
+            String name = re.getFilename();
+            File file = new File(workDir, name.substring(0, name.length() - 4));
+            InputStream is = null;
+            OutputStream os = null;
+            try {
+                is = re.getInputStream();
+                os = openOutputStream(file);
+                freemarker.process(is, model, os, UTF8);
+            } finally {
+                closeQuietly(is);
+                closeQuietly(os);
+            }
+            res += file.length();
+        }
+        return res;
+    }
+
+    @Benchmark
+    public long renderCached() throws IOException {
+        // snapshot is taken once per plugin execution
+        TemplateEngine engine = new TemplateEngine(TemplateEngine.snapshot(model, AbstractMojo.class));
+        long res = 0;
+        for(Resource re : templates) {
+            String name = re.getFilename();
+            File file = new File(workDir, name.substring(0, name.length() - 4));
+            engine.render(name, re.getInputStream(), file, UTF8);
+            res += file.length();
+        }
+        return res;
+    }
+
+    // fills settings with placeholder values as maven would with defaults
+    private void populate(SettingsMojo mojo) throws IllegalAccessException {
+        for(Field fi : SettingsMojo.class.getDeclaredFields()) {
+            if(Modifier.isStatic(fi.getModifiers())) continue;
+            fi.setAccessible(true);
+            Class<?> type = fi.getType();
+            if(String.class.equals(type)) {
+                fi.set(mojo, fi.getName());
+            } else if(File.class.equals(type)) {
+                fi.set(mojo, new File(workDir, fi.getName()));
+            } else if(int.class.equals(type)) {
+                fi.setInt(mojo, 64);
+            } else if(List.class.equals(type)) {
+                fi.set(mojo, new ArrayList<String>());
+            }
+        }
+        // settings that are resolved by getters must be valid
+        mojo.izpackAdditionalPacksPath = "classpath:/izpack/addpacks.xml";
+        mojo.jvmProfile = null;
+    }
+}
@@ -0,0 +1,298 @@
+package com.alexkasko.installer;
+
+import java.io.*;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Output stream that copies written bytes into a bounded ring buffer, a background thread writes
+ * them to file in batches. File is rotated when it exceeds size limit or when rotation interval
+ * passes, rotated files are gzipped on another background thread and only the newest ones are kept.
+ * When buffer is full, writers either block until there is space or their output is dropped,
+ * number of dropped bytes is written to file.
+ *
+ * Configured with system properties: 'installer.output.file' (enables capture),
+ * 'installer.output.bufferBytes' (1 MB by default), 'installer.output.overflow' ('block' by default or 'drop'),
+ * 'installer.output.maxFileBytes' (10 MB by default, '0' disables size rotation),
+ * 'installer.output.rotateMillis' ('0' by default, disables time rotation),
+ * 'installer.output.maxFiles' (rotated files to keep, 10 by default).
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+class AsyncRotatingOutput extends OutputStream {
+    static final String FILE_PROPERTY = "installer.output.file";
+    static final String BUFFER_PROPERTY = "installer.output.bufferBytes";
+    static final String OVERFLOW_PROPERTY = "installer.output.overflow";
+    static final String MAX_FILE_PROPERTY = "installer.output.maxFileBytes";
+    static final String ROTATE_PROPERTY = "installer.output.rotateMillis";
+    static final String MAX_FILES_PROPERTY = "installer.output.maxFiles";
+    private static final long FLUSH_INTERVAL_MILLIS = 200;
+
+    private final File file;
+    private final boolean dropOnOverflow;
+    private final long maxFileBytes;
+    private final long rotateMillis;
+    private final int maxFiles;
+    private final ExecutorService compressor = Executors.newSingleThreadExecutor(new DaemonThreadFactory("output-gzip"));
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final byte[] ring;
+    private int head;
+    private int size;
+    private long dropped;
+    private boolean writing;
+    private OutputStream out;
+    private long fileBytes;
+    private long fileOpened;
+
+    private AsyncRotatingOutput(File file, int bufferBytes, boolean dropOnOverflow, long maxFileBytes,
+                                long rotateMillis, int maxFiles) throws IOException {
+        this.file = file;
+        this.ring = new byte[bufferBytes];
+        this.dropOnOverflow = dropOnOverflow;
+        this.maxFileBytes = maxFileBytes;
+        this.rotateMillis = rotateMillis;
+        this.maxFiles = maxFiles;
+        open();
+        Thread writer = new Thread(new Writer(), "output-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Replaces {@code System.out} and {@code System.err} with capturing stream if capture is configured
+     *
+     * @return capturing stream, null if capture is not configured
+     * @throws IOException if output file cannot be opened
+     */
+    static AsyncRotatingOutput installIfConfigured() throws IOException {
+        String path = System.getProperty(FILE_PROPERTY);
+        if (null == path || 0 == path.trim().length()) return null;
+        String overflow = System.getProperty(OVERFLOW_PROPERTY, "block").trim();
+        if (!"block".equals(overflow) && !"drop".equals(overflow)) throw new IllegalArgumentException(
+                "Invalid overflow policy: [" + overflow + "], must be either 'block' or 'drop'");
+        AsyncRotatingOutput res = new AsyncRotatingOutput(new File(path.trim()),
+                (int) LauncherGroup.longProperty(BUFFER_PROPERTY, 1024 * 1024), "drop".equals(overflow),
+                LauncherGroup.longProperty(MAX_FILE_PROPERTY, 10 * 1024 * 1024),
+                LauncherGroup.longProperty(ROTATE_PROPERTY, 0), (int) LauncherGroup.longProperty(MAX_FILES_PROPERTY, 10));
+        // autoflush is not needed, bytes are handed to writer thread immediately
+        PrintStream ps = new PrintStream(res, false, "UTF-8");
+        System.setOut(ps);
+        System.setErr(ps);
+        return res;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        lock.lock();
+        try {
+            while (len > 0) {
+                // whole write is dropped to not break lines in the middle
+                if (dropOnOverflow && ring.length - size < len) {
+                    dropped += len;
+                    return;
+                }
+                if (ring.length == size) {
+                    notFull.awaitUninterruptibly();
+                    continue;
+                }
+                int chunk = Math.min(len, ring.length - size);
+                int tail = (head + size) % ring.length;
+                int first = Math.min(chunk, ring.length - tail);
+                System.arraycopy(b, off, ring, tail, first);
+                System.arraycopy(b, off + first, ring, 0, chunk - first);
+                size += chunk;
+                off += chunk;
+                len -= chunk;
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes up writer thread without waiting for it, autoflushing streams and appenders
+     * call this on every write, so it must not block on disk IO
+     */
+    @Override
+    public void flush() {
+        lock.lock();
+        try {
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until buffered bytes are written to file, used on shutdown
+     *
+     * @param timeoutMillis max time to wait
+     */
+    void drain(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        lock.lock();
+        try {
+            notEmpty.signal();
+            while ((size > 0 || writing) && System.currentTimeMillis() < deadline) {
+                notFull.await(FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (null != parent && !parent.exists() && !parent.mkdirs()) throw new IOException(
+                "Cannot create output directory: [" + parent.getAbsolutePath() + "]");
+        out = new FileOutputStream(file, true);
+        fileBytes = file.length();
+        fileOpened = System.currentTimeMillis();
+    }
+
+    private void writeBatch(byte[] batch, int len, long droppedBytes) throws IOException {
+        out.write(batch, 0, len);
+        fileBytes += len;
+        if (droppedBytes > 0) {
+            byte[] note = ("[output buffer overflow, bytes dropped: " + droppedBytes + "]\n").getBytes("UTF-8");
+            out.write(note);
+            fileBytes += note.length;
+        }
+        if ((maxFileBytes > 0 && fileBytes >= maxFileBytes) ||
+                (rotateMillis > 0 && System.currentTimeMillis() - fileOpened >= rotateMillis)) {
+            rotate();
+        }
+    }
+
+    private void rotate() throws IOException {
+        out.close();
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+        final File rolled = new File(file.getPath() + "." + stamp);
+        if (!file.renameTo(rolled)) {
+            // keep writing to the same file if it is locked by another process
+            open();
+            return;
+        }
+        open();
+        compressor.execute(new Runnable() {
+            public void run() {
+                gzip(rolled);
+                deleteOldest();
+            }
+        });
+    }
+
+    private void gzip(File rolled) {
+        File gz = new File(rolled.getPath() + ".gz");
+        try {
+            InputStream in = new FileInputStream(rolled);
+            try {
+                OutputStream os = new GZIPOutputStream(new FileOutputStream(gz));
+                try {
+                    byte[] buf = new byte[8192];
+                    int read;
+                    while (-1 != (read = in.read(buf))) {
+                        os.write(buf, 0, read);
+                    }
+                } finally {
+                    os.close();
+                }
+            } finally {
+                in.close();
+            }
+            rolled.delete();
+        } catch (IOException e) {
+            // System.err is captured, so error goes directly to the current file
+            gz.delete();
+        }
+    }
+
+    private void deleteOldest() {
+        File dir = file.getAbsoluteFile().getParentFile();
+        final String prefix = file.getName() + ".";
+        File[] rolled = dir.listFiles(new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return name.startsWith(prefix) && name.endsWith(".gz");
+            }
+        });
+        if (null == rolled || rolled.length <= maxFiles) return;
+        // timestamps in names sort chronologically
+        Arrays.sort(rolled);
+        List<File> old = new ArrayList<File>(Arrays.asList(rolled).subList(0, rolled.length - maxFiles));
+        for (File fi : old) {
+            fi.delete();
+        }
+    }
+
+    private class Writer implements Runnable {
+        public void run() {
+            byte[] batch = new byte[ring.length];
+            while (true) {
+                int len;
+                long droppedBytes;
+                lock.lock();
+                try {
+                    writing = false;
+                    notFull.signalAll();
+                    while (0 == size && 0 == dropped) {
+                        notEmpty.await(FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    }
+                    len = size;
+                    int first = Math.min(len, ring.length - head);
+                    System.arraycopy(ring, head, batch, 0, first);
+                    System.arraycopy(ring, 0, batch, first, len - first);
+                    head = (head + len) % ring.length;
+                    size = 0;
+                    droppedBytes = dropped;
+                    dropped = 0;
+                    writing = true;
+                    notFull.signalAll();
+                } catch (InterruptedException e) {
+                    return;
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    writeBatch(batch, len, droppedBytes);
+                } catch (IOException e) {
+                    // nowhere to report, output is lost until file becomes writable again
+                }
+            }
+        }
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final String name;
+
+        private DaemonThreadFactory(String name) {
+            this.name = name;
+        }
+
+        public Thread newThread(Runnable r) {
+            Thread th = new Thread(r, name);
+            th.setDaemon(true);
+            return th;
+        }
+    }
+}
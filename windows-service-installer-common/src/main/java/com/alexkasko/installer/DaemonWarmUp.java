@@ -0,0 +1,20 @@
+package com.alexkasko.installer;
+
+/**
+ * Warm-up routine run after all launchers are started and before daemon is reported as ready,
+ * used to get hot code paths compiled by JIT before real load arrives. If class implementing
+ * this interface is also one of the launchers, the launcher instance is used.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public interface DaemonWarmUp {
+    /**
+     * Runs single warm-up iteration, called repeatedly until time or iterations budget is exhausted
+     *
+     * @param request next line of recorded requests file, requests are replayed in a loop,
+     *                null if requests file is not configured
+     * @throws Exception on error, warm-up is finished on first error
+     */
+    void warmUp(String request) throws Exception;
+}
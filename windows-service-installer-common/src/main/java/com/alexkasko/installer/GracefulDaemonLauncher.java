@@ -0,0 +1,20 @@
+package com.alexkasko.installer;
+
+/**
+ * Launcher that can finish in-flight work before it is stopped. On shutdown all launchers
+ * are drained first, then stopped with {@link #stopDaemon()}.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public interface GracefulDaemonLauncher extends DaemonLauncher {
+    /**
+     * Stops accepting new work and waits for in-flight work to complete, will be called
+     * no more than once, before {@link #stopDaemon()}
+     *
+     * @param timeoutMillis time available for draining, launcher is stopped after it
+     *                      even if this method does not return
+     * @throws Exception on drain error, launcher is stopped anyway
+     */
+    void drainDaemon(long timeoutMillis) throws Exception;
+}
@@ -0,0 +1,466 @@
+package com.alexkasko.installer;
+
+import java.io.PrintStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Set of client launchers run in one JVM. Launchers are started in parallel, launcher
+ * with declared dependencies is started only after all its dependencies are started.
+ * If any launcher fails to start, no new launchers are started, readiness of other launchers
+ * is not waited for and already started ones are stopped.
+ *
+ * Launchers are specified as comma-separated class names, dependencies are appended
+ * to class name after ':' and separated with '+', e.g. 'app.Db,app.Cache,app.Web:app.Db+app.Cache'.
+ * Number of starting threads may be limited with 'installer.launcher.startThreads' system property.
+ *
+ * Startup of {@link ReadinessAwareLauncher} completes when its readiness future completes,
+ * all launchers must become ready within 'installer.launcher.readyTimeoutMillis' system property
+ * (5 minutes by default, '0' means no limit), otherwise startup fails.
+ *
+ * Shutdown is bounded by 'installer.launcher.stopTimeoutMillis' system property (30 seconds
+ * by default, '0' means no limit). First {@link GracefulDaemonLauncher}s are drained in parallel
+ * for no longer than 'installer.launcher.drainTimeoutMillis' (half of stop timeout by default),
+ * then launchers are stopped in parallel in reverse dependency order. If drain timeout expires,
+ * thread dump is printed to stderr and launchers are stopped anyway within the rest of stop timeout.
+ * If stop timeout expires, thread dump is printed and shutdown returns leaving stopping threads behind.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+class LauncherGroup {
+    static final String START_THREADS_PROPERTY = "installer.launcher.startThreads";
+    static final String STOP_TIMEOUT_PROPERTY = "installer.launcher.stopTimeoutMillis";
+    static final String DRAIN_TIMEOUT_PROPERTY = "installer.launcher.drainTimeoutMillis";
+    static final long DEFAULT_STOP_TIMEOUT_MILLIS = 30000;
+    static final String READY_TIMEOUT_PROPERTY = "installer.launcher.readyTimeoutMillis";
+    static final long DEFAULT_READY_TIMEOUT_MILLIS = 300000;
+
+    private final Map<String, Entry> entries;
+    private final List<Entry> started = new ArrayList<Entry>();
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
+    private final CountDownLatch stopLatch = new CountDownLatch(1);
+    private volatile boolean stopCompleted;
+    // parsed on start, so malformed properties fail startup instead of shutdown
+    private volatile long stopTimeout = DEFAULT_STOP_TIMEOUT_MILLIS;
+    private volatile long drainTimeout = DEFAULT_STOP_TIMEOUT_MILLIS / 2;
+
+    private LauncherGroup(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Parses launchers specification and instantiates launchers
+     *
+     * @param spec comma-separated launcher class names with optional dependencies
+     * @return launchers group
+     * @throws Exception on launcher instantiation error
+     */
+    static LauncherGroup create(String spec) throws Exception {
+        Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+        for(String part : spec.split(",")) {
+            String trimmed = part.trim();
+            if(0 == trimmed.length()) continue;
+            int colon = trimmed.indexOf(':');
+            String className = colon > 0 ? trimmed.substring(0, colon).trim() : trimmed;
+            List<String> deps = new ArrayList<String>();
+            if(colon > 0) {
+                for(String de : trimmed.substring(colon + 1).split("\\+")) {
+                    if(de.trim().length() > 0) deps.add(de.trim());
+                }
+            }
+            if(entries.containsKey(className)) throw new IllegalArgumentException("Duplicate launcher: [" + className + "]");
+            entries.put(className, new Entry(className, deps));
+        }
+        if(entries.isEmpty()) throw new IllegalArgumentException("No launcher classes specified: [" + spec + "]");
+        checkDependencies(entries);
+        for(Entry en : entries.values()) {
+            // static methods cannot be overridden, so we need an instance
+            Class<?> clazz = Class.forName(en.className);
+            en.launcher = (DaemonLauncher) clazz.newInstance();
+        }
+        return new LauncherGroup(entries);
+    }
+
+    /**
+     * Starts all launchers and waits for them to become ready, stops already started launchers on failure
+     *
+     * @throws Exception first startup failure
+     */
+    void start() throws Exception {
+        stopTimeout = timeoutProperty(STOP_TIMEOUT_PROPERTY, DEFAULT_STOP_TIMEOUT_MILLIS);
+        drainTimeout = timeoutProperty(DRAIN_TIMEOUT_PROPERTY, stopTimeout > 0 ? stopTimeout / 2 : 0);
+        long timeout = timeoutProperty(READY_TIMEOUT_PROPERTY, DEFAULT_READY_TIMEOUT_MILLIS);
+        Start start = new Start(timeout > 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE);
+        Exception failure = null;
+        if(1 == entries.size()) {
+            try {
+                start.run(entries.values().iterator().next());
+            } catch (Exception e) {
+                failure = e;
+            }
+        } else {
+            failure = runGraph(entries.values(), Order.DIRECT, start, "launcher-start", startThreads(), Long.MAX_VALUE);
+        }
+        if(null != failure) {
+            System.err.println("Launchers startup failed, stopping started launchers");
+            stop();
+            throw failure;
+        }
+    }
+
+    /**
+     * @param className launcher class name
+     * @return launcher instance, null if there is no such launcher in group
+     */
+    DaemonLauncher launcher(String className) {
+        Entry en = entries.get(className);
+        return null != en ? en.launcher : null;
+    }
+
+    /**
+     * Drains and stops started launchers, may be called multiple times from different threads,
+     * only the first call is effective, other calls wait for it to finish and return its result.
+     * Stop failures are reported but not rethrown.
+     *
+     * @return false if shutdown did not complete before stop timeout
+     */
+    boolean stop() {
+        if(!stopped.compareAndSet(false, true)) {
+            try {
+                stopLatch.await();
+                return stopCompleted;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        boolean completed = false;
+        try {
+            completed = stopStarted();
+            return completed;
+        } finally {
+            stopCompleted = completed;
+            stopLatch.countDown();
+        }
+    }
+
+    private boolean stopStarted() {
+        List<Entry> running;
+        synchronized(started) {
+            running = new ArrayList<Entry>(started);
+        }
+        if(running.isEmpty()) return true;
+        long start = System.currentTimeMillis();
+        long deadline = stopTimeout > 0 ? start + stopTimeout : Long.MAX_VALUE;
+        try {
+            List<Entry> graceful = new ArrayList<Entry>();
+            for(Entry en : running) {
+                if(en.launcher instanceof GracefulDaemonLauncher) graceful.add(en);
+            }
+            if(!graceful.isEmpty()) {
+                long drainDeadline = drainTimeout > 0 ? Math.min(start + drainTimeout, deadline) : deadline;
+                Drain drain = new Drain(drainTimeout > 0 ? drainDeadline - start : 0);
+                try {
+                    // all launchers stop accepting work at once
+                    runGraph(graceful, Order.NONE, drain, "launcher-drain", graceful.size(), drainDeadline);
+                } catch (TimeoutException e) {
+                    // launchers are stopped anyway, stuck drain threads are left behind
+                    System.err.println("Launchers drain timed out after: [" + (System.currentTimeMillis() - start) + "] ms, threads:");
+                    printThreadDump(System.err);
+                }
+            }
+            runGraph(running, Order.REVERSE, STOP, "launcher-stop", running.size(), deadline);
+            return true;
+        } catch (TimeoutException e) {
+            System.err.println("Launchers shutdown timed out after: [" + (System.currentTimeMillis() - start) + "] ms, threads:");
+            printThreadDump(System.err);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Launchers shutdown interrupted");
+            return false;
+        }
+    }
+
+    // runs action on entries respecting dependencies, reversed for shutdown,
+    // on startup first failure stops submission, on shutdown failures are only reported
+    private Exception runGraph(Collection<Entry> nodes, Order order, Action action, String threadName,
+                               int threads, long deadline) throws InterruptedException, TimeoutException {
+        Map<String, Entry> pending = new LinkedHashMap<String, Entry>();
+        for(Entry en : nodes) {
+            pending.put(en.className, en);
+        }
+        Map<String, Set<String>> prerequisites = prerequisites(pending, order);
+        boolean startup = Order.DIRECT == order;
+        Set<String> running = new HashSet<String>();
+        Set<String> completed = new HashSet<String>();
+        Exception failure = null;
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new LauncherThreadFactory(threadName));
+        CompletionService<Entry> completion = new ExecutorCompletionService<Entry>(executor);
+        try {
+            while(true) {
+                if(!startup || null == failure) {
+                    for(Entry en : new ArrayList<Entry>(pending.values())) {
+                        if(!completed.containsAll(prerequisites.get(en.className))) continue;
+                        pending.remove(en.className);
+                        running.add(en.className);
+                        completion.submit(new ActionTask(en, action));
+                    }
+                }
+                if(running.isEmpty()) break;
+                Future<Entry> done = poll(completion, deadline);
+                try {
+                    Entry en = done.get();
+                    running.remove(en.className);
+                    completed.add(en.className);
+                } catch (ExecutionException e) {
+                    ActionError err = (ActionError) e.getCause();
+                    running.remove(err.entry.className);
+                    // dependencies of failed launcher are stopped anyway
+                    completed.add(err.entry.className);
+                    if(null == failure) failure = err.cause;
+                    System.err.println("Error running: [" + threadName + "] for launcher: [" + err.entry.className + "]");
+                    err.cause.printStackTrace();
+                    // other launchers are not waited for, started ones are stopped by caller
+                    if(startup) break;
+                }
+            }
+        } finally {
+            if(startup && null != failure) {
+                // interrupts readiness waits, launchers that start after failure stop themselves
+                executor.shutdownNow();
+            } else {
+                // threads stuck after timeout are not interrupted to be seen in thread dump, they are daemons
+                executor.shutdown();
+            }
+        }
+        return failure;
+    }
+
+    private static Future<Entry> poll(CompletionService<Entry> completion, long deadline) throws InterruptedException, TimeoutException {
+        if(Long.MAX_VALUE == deadline) return completion.take();
+        long remaining = deadline - System.currentTimeMillis();
+        Future<Entry> res = remaining > 0 ? completion.poll(remaining, TimeUnit.MILLISECONDS) : completion.poll();
+        if(null == res) throw new TimeoutException();
+        return res;
+    }
+
+    // on startup launcher waits for its dependencies, on shutdown - for launchers depending on it
+    private static Map<String, Set<String>> prerequisites(Map<String, Entry> nodes, Order order) {
+        Map<String, Set<String>> res = new HashMap<String, Set<String>>();
+        for(Entry en : nodes.values()) {
+            res.put(en.className, new HashSet<String>());
+        }
+        for(Entry en : nodes.values()) {
+            for(String de : en.dependencies) {
+                if(!nodes.containsKey(de)) continue;
+                if(Order.DIRECT == order) res.get(en.className).add(de);
+                if(Order.REVERSE == order) res.get(de).add(en.className);
+            }
+        }
+        return res;
+    }
+
+    // returns false if group is already stopping, such launcher is not stopped by group
+    private boolean addStarted(Entry en) {
+        synchronized(started) {
+            if(stopped.get()) return false;
+            started.add(en);
+            return true;
+        }
+    }
+
+    private int startThreads() {
+        int threads = (int) longProperty(START_THREADS_PROPERTY, entries.size());
+        return Math.max(1, Math.min(threads, entries.size()));
+    }
+
+    static long longProperty(String name, long defaultValue) {
+        String prop = System.getProperty(name);
+        return null != prop && prop.trim().length() > 0 ? Long.parseLong(prop.trim()) : defaultValue;
+    }
+
+    private static long timeoutProperty(String name, long defaultValue) {
+        long res;
+        try {
+            res = longProperty(name, defaultValue);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid timeout: [" + System.getProperty(name) + "] in property: [" + name + "]", e);
+        }
+        if(res < 0) throw new IllegalArgumentException("Invalid timeout: [" + res + "] in property: [" + name + "]");
+        return res;
+    }
+
+    private static void checkDependencies(Map<String, Entry> entries) {
+        for(Entry en : entries.values()) {
+            for(String de : en.dependencies) {
+                if(!entries.containsKey(de)) throw new IllegalArgumentException(
+                        "Launcher: [" + en.className + "] depends on unknown launcher: [" + de + "]");
+            }
+        }
+        // Kahn's algorithm, all launchers must be resolvable
+        Set<String> resolved = new HashSet<String>();
+        boolean progress = true;
+        while(progress) {
+            progress = false;
+            for(Entry en : entries.values()) {
+                if(!resolved.contains(en.className) && resolved.containsAll(en.dependencies)) {
+                    resolved.add(en.className);
+                    progress = true;
+                }
+            }
+        }
+        if(resolved.size() < entries.size()) {
+            Set<String> cycle = new LinkedHashSet<String>(entries.keySet());
+            cycle.removeAll(resolved);
+            throw new IllegalArgumentException("Cyclic launchers dependencies: " + cycle);
+        }
+    }
+
+    private static void printThreadDump(PrintStream out) {
+        for(Map.Entry<Thread, StackTraceElement[]> en : Thread.getAllStackTraces().entrySet()) {
+            Thread th = en.getKey();
+            out.println("\"" + th.getName() + "\"" + (th.isDaemon() ? " daemon" : "") + " " + th.getState());
+            for(StackTraceElement el : en.getValue()) {
+                out.println("\tat " + el);
+            }
+            out.println();
+        }
+    }
+
+    private enum Order {
+        DIRECT, REVERSE, NONE
+    }
+
+    private static class Entry {
+        private final String className;
+        private final List<String> dependencies;
+        private DaemonLauncher launcher;
+
+        private Entry(String className, List<String> dependencies) {
+            this.className = className;
+            this.dependencies = dependencies;
+        }
+    }
+
+    private interface Action {
+        void run(Entry entry) throws Exception;
+    }
+
+    // launcher is registered as started before waiting for readiness to be stopped if it does not become ready
+    private class Start implements Action {
+        private final long deadline;
+
+        private Start(long deadline) {
+            this.deadline = deadline;
+        }
+
+        public void run(Entry entry) throws Exception {
+            entry.launcher.startDaemon();
+            if(!addStarted(entry)) {
+                // other launcher failed while this one was starting
+                entry.launcher.stopDaemon();
+                throw new IllegalStateException("Launcher: [" + entry.className + "] is stopped, group startup failed");
+            }
+            if(!(entry.launcher instanceof ReadinessAwareLauncher)) return;
+            Future<?> ready = ((ReadinessAwareLauncher) entry.launcher).readiness(new ProgressPrinter(entry.className));
+            try {
+                if(Long.MAX_VALUE == deadline) ready.get();
+                else ready.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            } catch (TimeoutException e) {
+                ready.cancel(true);
+                throw new TimeoutException("Launcher: [" + entry.className + "] is not ready after timeout");
+            } catch (InterruptedException e) {
+                // group startup failed
+                ready.cancel(true);
+                throw e;
+            }
+        }
+    }
+
+    private static final Action STOP = new Action() {
+        public void run(Entry entry) {
+            entry.launcher.stopDaemon();
+        }
+    };
+
+    private static class Drain implements Action {
+        private final long timeoutMillis;
+
+        private Drain(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        public void run(Entry entry) throws Exception {
+            ((GracefulDaemonLauncher) entry.launcher).drainDaemon(timeoutMillis);
+        }
+    }
+
+    private static class ProgressPrinter implements ReadinessAwareLauncher.Progress {
+        private final String className;
+
+        private ProgressPrinter(String className) {
+            this.className = className;
+        }
+
+        public void report(String stage, int percent) {
+            System.out.println("Launcher: [" + className + "] warm-up: [" + stage + "], " + percent + "%");
+        }
+    }
+
+    private static class ActionTask implements Callable<Entry> {
+        private final Entry entry;
+        private final Action action;
+
+        private ActionTask(Entry entry, Action action) {
+            this.entry = entry;
+            this.action = action;
+        }
+
+        public Entry call() throws ActionError {
+            try {
+                action.run(entry);
+                return entry;
+            } catch (Throwable e) {
+                // linkage errors are typical on startup, started launchers must be stopped on them too
+                throw new ActionError(entry, e instanceof Exception ? (Exception) e : new RuntimeException(e));
+            }
+        }
+    }
+
+    // carries failed launcher through future
+    private static class ActionError extends Exception {
+        private static final long serialVersionUID = -3470957718418838525L;
+
+        private final Entry entry;
+        private final Exception cause;
+
+        private ActionError(Entry entry, Exception cause) {
+            super(cause);
+            this.entry = entry;
+            this.cause = cause;
+        }
+    }
+
+    private static class LauncherThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        private LauncherThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public Thread newThread(Runnable r) {
+            Thread th = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            th.setDaemon(true);
+            // http://issues.apache.org/jira/browse/DAEMON-100
+            th.setContextClassLoader(ClassLoader.getSystemClassLoader());
+            return th;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.alexkasko.installer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.*;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports JVM and daemon lifecycle metrics in Prometheus text format. Metrics are served over HTTP
+ * on 'installer.metrics.port' port of 'installer.metrics.host' interface (loopback by default)
+ * at '/metrics' path, and/or written to 'installer.metrics.file' every 'installer.metrics.intervalMillis'
+ * milliseconds (one minute by default) and once more after daemon is stopped.
+ * Metrics are read from platform MXBeans on each request, no history is kept.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+class MetricsExporter {
+    static final String PORT_PROPERTY = "installer.metrics.port";
+    static final String HOST_PROPERTY = "installer.metrics.host";
+    static final String FILE_PROPERTY = "installer.metrics.file";
+    static final String INTERVAL_PROPERTY = "installer.metrics.intervalMillis";
+    static final long DEFAULT_INTERVAL_MILLIS = 60000;
+
+    private final Map<String, Double> lifecycle = new ConcurrentHashMap<String, Double>();
+    private final HttpServer server;
+    private final File file;
+    private final ScheduledExecutorService scheduler;
+
+    private MetricsExporter(HttpServer server, File file, ScheduledExecutorService scheduler) {
+        this.server = server;
+        this.file = file;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Starts exporter if port or file is configured
+     *
+     * @return started exporter, null if metrics are not enabled
+     * @throws IOException if HTTP port cannot be bound
+     */
+    static MetricsExporter startIfConfigured() throws IOException {
+        long port = LauncherGroup.longProperty(PORT_PROPERTY, 0);
+        String path = System.getProperty(FILE_PROPERTY);
+        boolean toFile = null != path && path.trim().length() > 0;
+        if(port <= 0 && !toFile) return null;
+        HttpServer server = null;
+        if(port > 0) {
+            String host = System.getProperty(HOST_PROPERTY, "127.0.0.1");
+            server = HttpServer.create(new InetSocketAddress(host, (int) port), 0);
+        }
+        ScheduledExecutorService scheduler = toFile ? Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory()) : null;
+        final MetricsExporter res = new MetricsExporter(server, toFile ? new File(path.trim()) : null, scheduler);
+        if(null != server) {
+            server.createContext("/metrics", new HttpHandler() {
+                public void handle(HttpExchange exchange) throws IOException {
+                    res.serve(exchange);
+                }
+            });
+            server.start();
+            System.out.println("Metrics are served at: [http://" + server.getAddress().getHostName() + ":" + port + "/metrics]");
+        }
+        if(null != scheduler) {
+            long interval = LauncherGroup.longProperty(INTERVAL_PROPERTY, DEFAULT_INTERVAL_MILLIS);
+            scheduler.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    res.writeSnapshot();
+                }
+            }, 0, interval, TimeUnit.MILLISECONDS);
+        }
+        return res;
+    }
+
+    /**
+     * Records daemon lifecycle phase duration
+     *
+     * @param phase phase name, used as label value
+     * @param millis phase duration
+     */
+    void lifecycle(String phase, long millis) {
+        lifecycle.put(phase, millis / 1000d);
+    }
+
+    /**
+     * Stops HTTP server and scheduler, writes final snapshot to file
+     */
+    void close() {
+        if(null != server) server.stop(0);
+        if(null != scheduler) {
+            scheduler.shutdownNow();
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * @return current metrics in Prometheus text format
+     */
+    String scrape() {
+        StringBuilder sb = new StringBuilder(4096);
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        gauge(sb, "process_start_time_seconds", "JVM start time since epoch", runtime.getStartTime() / 1000d);
+        gauge(sb, "process_uptime_seconds", "JVM uptime", runtime.getUptime() / 1000d);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        MemoryUsage heap = memory.getHeapMemoryUsage();
+        MemoryUsage nonHeap = memory.getNonHeapMemoryUsage();
+        header(sb, "jvm_memory_bytes_used", "gauge", "Used memory");
+        labeled(sb, "jvm_memory_bytes_used", "area", "heap", heap.getUsed());
+        labeled(sb, "jvm_memory_bytes_used", "area", "nonheap", nonHeap.getUsed());
+        header(sb, "jvm_memory_bytes_committed", "gauge", "Committed memory");
+        labeled(sb, "jvm_memory_bytes_committed", "area", "heap", heap.getCommitted());
+        labeled(sb, "jvm_memory_bytes_committed", "area", "nonheap", nonHeap.getCommitted());
+        header(sb, "jvm_memory_bytes_max", "gauge", "Max memory, -1 if undefined");
+        labeled(sb, "jvm_memory_bytes_max", "area", "heap", heap.getMax());
+        labeled(sb, "jvm_memory_bytes_max", "area", "nonheap", nonHeap.getMax());
+        List<GarbageCollectorMXBean> gcs = ManagementFactory.getGarbageCollectorMXBeans();
+        header(sb, "jvm_gc_collection_seconds_count", "counter", "Garbage collections count");
+        for(GarbageCollectorMXBean gc : gcs) {
+            labeled(sb, "jvm_gc_collection_seconds_count", "gc", gc.getName(), gc.getCollectionCount());
+        }
+        header(sb, "jvm_gc_collection_seconds_sum", "counter", "Garbage collections accumulated time");
+        for(GarbageCollectorMXBean gc : gcs) {
+            labeled(sb, "jvm_gc_collection_seconds_sum", "gc", gc.getName(), gc.getCollectionTime() / 1000d);
+        }
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        gauge(sb, "jvm_threads_current", "Live threads", threads.getThreadCount());
+        gauge(sb, "jvm_threads_daemon", "Live daemon threads", threads.getDaemonThreadCount());
+        gauge(sb, "jvm_threads_peak", "Peak live threads", threads.getPeakThreadCount());
+        ClassLoadingMXBean classes = ManagementFactory.getClassLoadingMXBean();
+        gauge(sb, "jvm_classes_loaded", "Currently loaded classes", classes.getLoadedClassCount());
+        CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+        if(null != jit && jit.isCompilationTimeMonitoringSupported()) {
+            gauge(sb, "jvm_jit_compilation_seconds", "Accumulated JIT compilation time", jit.getTotalCompilationTime() / 1000d);
+        }
+        header(sb, "installer_lifecycle_seconds", "gauge", "Daemon lifecycle phases durations");
+        for(Map.Entry<String, Double> en : lifecycle.entrySet()) {
+            labeled(sb, "installer_lifecycle_seconds", "phase", en.getKey(), en.getValue());
+        }
+        return sb.toString();
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        try {
+            byte[] body = scrape().getBytes("UTF-8");
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            OutputStream out = exchange.getResponseBody();
+            out.write(body);
+            out.close();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // written to temp file and renamed, so readers never see partial snapshot
+    private void writeSnapshot() {
+        try {
+            File tmp = new File(file.getPath() + ".tmp");
+            OutputStream out = new FileOutputStream(tmp);
+            try {
+                out.write(scrape().getBytes("UTF-8"));
+            } finally {
+                out.close();
+            }
+            if(!tmp.renameTo(file)) {
+                file.delete();
+                if(!tmp.renameTo(file)) System.err.println("Cannot write metrics file: [" + file.getAbsolutePath() + "]");
+            }
+        } catch (Exception e) {
+            // metrics must not affect application
+            System.err.println("Cannot write metrics file: [" + file.getAbsolutePath() + "]: " + e);
+        }
+    }
+
+    private static void gauge(StringBuilder sb, String name, String help, double value) {
+        header(sb, name, "gauge", help);
+        sb.append(name).append(' ');
+        value(sb, value).append('\n');
+    }
+
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void labeled(StringBuilder sb, String name, String label, String labelValue, double value) {
+        sb.append(name).append('{').append(label).append("=\"");
+        for(int i = 0; i < labelValue.length(); i++) {
+            char ch = labelValue.charAt(i);
+            if('"' == ch || '\\' == ch) sb.append('\\');
+            if('\n' == ch) sb.append("\\n");
+            else sb.append(ch);
+        }
+        sb.append("\"} ");
+        value(sb, value).append('\n');
+    }
+
+    private static StringBuilder value(StringBuilder sb, double value) {
+        long asLong = (long) value;
+        if(asLong == value) return sb.append(asLong);
+        return sb.append(value);
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        public Thread newThread(Runnable r) {
+            Thread th = new Thread(r, "metrics-snapshot");
+            th.setDaemon(true);
+            return th;
+        }
+    }
+}
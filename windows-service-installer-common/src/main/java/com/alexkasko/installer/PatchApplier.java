@@ -0,0 +1,296 @@
+package com.alexkasko.installer;
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Applies patch package built by 'patch' plugin goal to installed application. Patch contains
+ * SHA-1 manifests of base and target releases, changed and added files, binary deltas of large
+ * changed files and list of deleted files. Files to be replaced or deleted must match base manifest,
+ * new files are built in '.patch' directory and checked against target manifest before anything
+ * is replaced. Files unchanged between releases are not checked, so local changes in them are kept.
+ * Replaced files are backed up and restored if patch cannot be completed, application must be
+ * stopped while patch is applied.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class PatchApplier {
+    // must match BinaryDelta in plugin
+    private static final int MAGIC = 0x57534944;
+    private static final byte VERSION = 1;
+    private static final byte END = 0;
+    private static final byte COPY = 1;
+    private static final byte DATA = 2;
+
+    private final File appDir;
+    private final File workDir;
+
+    /**
+     * @param appDir application directory
+     */
+    public PatchApplier(File appDir) {
+        this.appDir = appDir;
+        this.workDir = new File(appDir, ".patch");
+    }
+
+    /**
+     * Entry point
+     *
+     * @param args patch file and application directory
+     */
+    public static void main(String[] args) {
+        if (2 != args.length) {
+            System.err.println("Usage: java " + PatchApplier.class.getName() + " patch.zip app_dir");
+            System.exit(2);
+        }
+        try {
+            int changed = new PatchApplier(new File(args[1])).apply(new File(args[0]));
+            System.out.println("Patch applied, files changed: [" + changed + "]");
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Applies patch, already applied changes are skipped, so patch may be applied again after failure
+     *
+     * @param patch patch file
+     * @return number of changed and deleted files
+     * @throws IOException if application does not match base release or on IO error
+     */
+    public int apply(File patch) throws IOException {
+        ZipFile zip = new ZipFile(patch);
+        try {
+            Map<String, String> base = readManifest(zip, "patch/base.sha1");
+            Map<String, String> target = readManifest(zip, "patch/target.sha1");
+            List<String> deleted = readLines(zip, "patch/deleted.txt");
+            deleteTree(workDir);
+            List<String> replaced = new ArrayList<String>();
+            for (Map.Entry<String, String> en : target.entrySet()) {
+                String path = en.getKey();
+                if (en.getValue().equals(base.get(path))) continue;
+                File current = new File(appDir, path);
+                if (current.isFile() && en.getValue().equals(sha1Hex(current))) continue;
+                checkBase(path, base);
+                File built = new File(workDir, "new/" + path);
+                build(zip, path, built);
+                String hash = sha1Hex(built);
+                if (!en.getValue().equals(hash)) throw new IOException(
+                        "Hash mismatch for patched file: [" + path + "], expected: [" + en.getValue() + "], actual: [" + hash + "]");
+                replaced.add(path);
+            }
+            List<String> removed = new ArrayList<String>();
+            for (String path : deleted) {
+                if (!new File(appDir, path).exists()) continue;
+                checkBase(path, base);
+                removed.add(path);
+            }
+            commit(replaced, removed);
+            deleteTree(workDir);
+            return replaced.size() + removed.size();
+        } finally {
+            zip.close();
+        }
+    }
+
+    private void checkBase(String path, Map<String, String> base) throws IOException {
+        String expected = base.get(path);
+        if (null == expected) {
+            // added file, must not exist or must be a leftover of failed attempt
+            return;
+        }
+        File current = new File(appDir, path);
+        if (!current.isFile()) throw new IOException("File of base release not found: [" + current.getAbsolutePath() + "]");
+        String hash = sha1Hex(current);
+        if (!expected.equals(hash)) throw new IOException("File does not match base release: [" +
+                current.getAbsolutePath() + "], expected: [" + expected + "], actual: [" + hash + "]");
+    }
+
+    private void build(ZipFile zip, String path, File built) throws IOException {
+        mkdirs(built.getParentFile());
+        ZipEntry full = zip.getEntry("files/" + path);
+        ZipEntry delta = zip.getEntry("deltas/" + path);
+        if (null != full) {
+            InputStream is = zip.getInputStream(full);
+            try {
+                copy(is, built);
+            } finally {
+                is.close();
+            }
+        } else if (null != delta) {
+            InputStream is = zip.getInputStream(delta);
+            try {
+                applyDelta(new File(appDir, path), is, built);
+            } finally {
+                is.close();
+            }
+        } else {
+            throw new IOException("No contents for file: [" + path + "] in patch");
+        }
+    }
+
+    private void commit(List<String> replaced, List<String> removed) throws IOException {
+        List<String> backedUp = new ArrayList<String>();
+        List<String> installed = new ArrayList<String>();
+        try {
+            for (String path : replaced) {
+                File current = new File(appDir, path);
+                if (current.exists()) {
+                    move(current, new File(workDir, "backup/" + path));
+                    backedUp.add(path);
+                }
+                move(new File(workDir, "new/" + path), current);
+                installed.add(path);
+            }
+            for (String path : removed) {
+                move(new File(appDir, path), new File(workDir, "backup/" + path));
+                backedUp.add(path);
+            }
+        } catch (IOException e) {
+            rollback(installed, backedUp);
+            throw e;
+        }
+    }
+
+    private void rollback(List<String> installed, List<String> backedUp) {
+        for (String path : installed) {
+            new File(appDir, path).delete();
+        }
+        for (String path : backedUp) {
+            File backup = new File(workDir, "backup/" + path);
+            if (!backup.renameTo(new File(appDir, path))) {
+                System.err.println("Cannot restore file: [" + path + "], backup is kept in: [" + backup.getAbsolutePath() + "]");
+            }
+        }
+    }
+
+    private static void applyDelta(File base, InputStream delta, File built) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(delta));
+        if (MAGIC != in.readInt() || VERSION != in.readByte()) throw new IOException("Invalid delta for file: [" + base.getPath() + "]");
+        long length = in.readLong();
+        RandomAccessFile src = new RandomAccessFile(base, "r");
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(built));
+        try {
+            byte[] buf = new byte[64 * 1024];
+            long written = 0;
+            for (byte op = in.readByte(); END != op; op = in.readByte()) {
+                if (COPY == op) {
+                    src.seek(in.readLong());
+                    int len = in.readInt();
+                    while (len > 0) {
+                        int chunk = Math.min(len, buf.length);
+                        src.readFully(buf, 0, chunk);
+                        out.write(buf, 0, chunk);
+                        len -= chunk;
+                        written += chunk;
+                    }
+                } else if (DATA == op) {
+                    int len = in.readInt();
+                    while (len > 0) {
+                        int chunk = Math.min(len, buf.length);
+                        in.readFully(buf, 0, chunk);
+                        out.write(buf, 0, chunk);
+                        len -= chunk;
+                        written += chunk;
+                    }
+                } else {
+                    throw new IOException("Invalid delta operation: [" + op + "] for file: [" + base.getPath() + "]");
+                }
+            }
+            if (written != length) throw new IOException("Invalid delta length for file: [" + base.getPath() + "]");
+        } finally {
+            src.close();
+            out.close();
+        }
+    }
+
+    private static Map<String, String> readManifest(ZipFile zip, String name) throws IOException {
+        Map<String, String> res = new TreeMap<String, String>();
+        // 'sha1sum' format
+        for (String line : readLines(zip, name)) {
+            int sep = line.indexOf("  ");
+            if (40 != sep) throw new IOException("Invalid manifest line: [" + line + "] in: [" + name + "]");
+            res.put(line.substring(sep + 2), line.substring(0, sep));
+        }
+        return res;
+    }
+
+    private static List<String> readLines(ZipFile zip, String name) throws IOException {
+        ZipEntry entry = zip.getEntry(name);
+        if (null == entry) throw new IOException("Invalid patch, entry not found: [" + name + "]");
+        BufferedReader reader = new BufferedReader(new InputStreamReader(zip.getInputStream(entry), "UTF-8"));
+        try {
+            List<String> res = new ArrayList<String>();
+            for (String line = reader.readLine(); null != line; line = reader.readLine()) {
+                if (line.length() > 0) res.add(line);
+            }
+            return res;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static String sha1Hex(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e.getMessage());
+        }
+        InputStream is = new FileInputStream(file);
+        try {
+            byte[] buf = new byte[64 * 1024];
+            for (int read = is.read(buf); -1 != read; read = is.read(buf)) {
+                digest.update(buf, 0, read);
+            }
+        } finally {
+            is.close();
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b & 0xff));
+        }
+        return sb.toString();
+    }
+
+    private static void copy(InputStream is, File file) throws IOException {
+        OutputStream os = new FileOutputStream(file);
+        try {
+            byte[] buf = new byte[64 * 1024];
+            for (int read = is.read(buf); -1 != read; read = is.read(buf)) {
+                os.write(buf, 0, read);
+            }
+        } finally {
+            os.close();
+        }
+    }
+
+    private static void move(File src, File dest) throws IOException {
+        mkdirs(dest.getParentFile());
+        if (!src.renameTo(dest)) throw new IOException("Cannot move file: [" + src.getAbsolutePath() +
+                "] to: [" + dest.getAbsolutePath() + "]");
+    }
+
+    private static void mkdirs(File dir) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) throw new IOException("Cannot create directory: [" + dir.getAbsolutePath() + "]");
+    }
+
+    private static void deleteTree(File fileOrDir) {
+        File[] children = fileOrDir.listFiles();
+        if (null != children) {
+            for (File fi : children) {
+                deleteTree(fi);
+            }
+        }
+        fileOrDir.delete();
+    }
+}
@@ -0,0 +1,34 @@
+package com.alexkasko.installer;
+
+import java.util.concurrent.Future;
+
+/**
+ * Launcher that signals when application is actually ready to serve. Daemon is reported
+ * as ready only after readiness futures of all such launchers are completed, launchers
+ * depending on this one are started after it is ready.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public interface ReadinessAwareLauncher extends DaemonLauncher {
+    /**
+     * Called once right after {@link #startDaemon()}, must not block
+     *
+     * @param progress listener for warm-up progress, may be called from any thread
+     * @return future completed when application is ready, failed future aborts daemon startup
+     */
+    Future<?> readiness(Progress progress);
+
+    /**
+     * Warm-up progress listener
+     */
+    interface Progress {
+        /**
+         * Reports warm-up progress
+         *
+         * @param stage current warm-up stage description
+         * @param percent approximate completion percent
+         */
+        void report(String stage, int percent);
+    }
+}
@@ -1,74 +1,165 @@
 package com.alexkasko.installer;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Actual daemon launcher that will delegate application startup/shutdown to client launcher
+ * Actual daemon launcher that will delegate application startup/shutdown to client launchers,
+ * multiple launchers may be run in one JVM, see {@link LauncherGroup} for specification format.
+ * Daemon is reported as ready after all launchers are started and ready and optional warm-up
+ * is finished, see {@link WarmUpPhase}. Ready file with startup stats is created at path specified
+ * with 'installer.launcher.readyFile' system property and deleted on shutdown.
+ * JVM and lifecycle metrics are exported if enabled, see {@link MetricsExporter}.
+ * Standard output and error streams may be captured into rotating file, see {@link AsyncRotatingOutput}.
  *
  * @author alexkasko
  * Date: 5/2/12
  */
 public class StandardLauncher {
+    static final String READY_FILE_PROPERTY = "installer.launcher.readyFile";
     // AtomicReference just in case, daemon should never be started or stopped more than once during JVM lifetime
-    private static final AtomicReference<DaemonLauncher> HOLDER = new AtomicReference<DaemonLauncher>();
+    private static final AtomicReference<LauncherGroup> HOLDER = new AtomicReference<LauncherGroup>();
     private static final CountDownLatch LATCH = new CountDownLatch(1);
+    private static final AtomicReference<MetricsExporter> METRICS = new AtomicReference<MetricsExporter>();
+    private static final AtomicReference<AsyncRotatingOutput> OUTPUT = new AtomicReference<AsyncRotatingOutput>();
 
     /**
      * Daemonized java process entry point
      *
      * @param args there must be exactly 2 parameters, 1st - 'start' ot 'stop', second - 'launcherClassName'
+     *             or comma-separated launcher class names with optional dependencies
      */
     public static void main(String[] args) {
         if (2 != args.length) throw new IllegalArgumentException("No argument provided, must either 'start' or 'stop' and 'launcherClassName'");
         String command = args[0];
         String className = args[1];
+        if ("start".equals(command)) captureOutput();
         System.out.println("Running daemon command: '" + command + "' with main class: " + className);
         if ("start".equals(command)) {
             start(className);
-            System.out.println("Daemon started");
             awaitOnLatch();
         } else if ("stop".equals(args[0])) {
-            stop();
+            boolean completed = stop();
             LATCH.countDown();
-            System.out.println("Daemon stopped");
+            System.out.println(completed ? "Daemon stopped" : "Daemon stop timed out");
         } else {
             throw new IllegalArgumentException("Argument must be either 'start' or 'stop'");
         }
     }
 
-    // separate methods for proper error reporting
-    private static void start(String className) {
+    // separate methods for proper error reporting, package-private for training run
+    static void start(String launchers) {
         try {
-            // static methods cannot be overridden, so we need an instance
-            Class clazz = Class.forName(className);
-            DaemonLauncher instance = (DaemonLauncher) clazz.newInstance();
-            DaemonLauncher existed = HOLDER.getAndSet(instance);
+            METRICS.set(MetricsExporter.startIfConfigured());
+            long loading = System.currentTimeMillis();
+            recordPhase("jvm_init", ManagementFactory.getRuntimeMXBean().getStartTime());
+            LauncherGroup group = LauncherGroup.create(launchers);
+            recordPhase("class_load", loading);
+            LauncherGroup existed = HOLDER.getAndSet(group);
             if (null != existed) throw new IllegalStateException("Daemon is already started");
             // http://issues.apache.org/jira/browse/DAEMON-100
             Thread.currentThread().setContextClassLoader(ClassLoader.getSystemClassLoader());
-            instance.startDaemon();
+            // stops launchers on SIGTERM or System.exit() if they were not stopped with 'stop' command
+            Runtime.getRuntime().addShutdownHook(new Thread(new ShutdownHook(group), "launcher-shutdown-hook"));
+            long started = System.currentTimeMillis();
+            group.start();
+            recordPhase("start", started);
+            Map<String, Long> stats = new LinkedHashMap<String, Long>();
+            stats.put("startupMillis", System.currentTimeMillis() - started);
+            long warmUp = System.currentTimeMillis();
+            Map<String, Long> warmUpStats = WarmUpPhase.runIfConfigured(group);
+            if (!warmUpStats.isEmpty()) recordPhase("warm_up", warmUp);
+            stats.putAll(warmUpStats);
+            long millis = System.currentTimeMillis() - started;
+            writeReadyFile(stats);
+            System.out.println("Daemon started and ready, startup time: [" + millis + "] ms");
         } catch (Exception e) {
             e.printStackTrace();
+            // metrics server thread must not keep JVM alive
+            closeMetrics();
+            drainOutput();
             // rethrow startup exception to stop JVM
             throw new RuntimeException(e);
         }
     }
 
-    private static void stop() {
-        DaemonLauncher instance = HOLDER.get();
-        if (null == instance) {
+    static boolean stop() {
+        LauncherGroup group = HOLDER.get();
+        if (null == group) {
             System.err.println("Cannot stop daemon because it wasn't started");
             throw new IllegalStateException("Daemon wasn't started");
         }
+        return shutdown(group);
+    }
+
+    // shared by 'stop' command and shutdown hook, only the first call is effective
+    private static boolean shutdown(LauncherGroup group) {
+        deleteReadyFile();
+        long stopping = System.currentTimeMillis();
+        // shutdown exceptions are reported but not rethrown
+        boolean completed = group.stop();
+        recordPhase("stop", stopping);
+        closeMetrics();
+        drainOutput();
+        return completed;
+    }
+
+    private static void captureOutput() {
         try {
-            instance.stopDaemon();
-        } catch (Exception e) {
-            // not rethrow shutdown exception
+            OUTPUT.set(AsyncRotatingOutput.installIfConfigured());
+        } catch (IOException e) {
+            // keep original streams, daemon must not fail because of logging
             e.printStackTrace();
         }
     }
 
+    private static void drainOutput() {
+        AsyncRotatingOutput output = OUTPUT.get();
+        if (null != output) output.drain(5000);
+    }
+
+    private static void recordPhase(String phase, long startMillis) {
+        MetricsExporter metrics = METRICS.get();
+        if (null != metrics) metrics.lifecycle(phase, System.currentTimeMillis() - startMillis);
+    }
+
+    private static void closeMetrics() {
+        MetricsExporter metrics = METRICS.getAndSet(null);
+        if (null != metrics) metrics.close();
+    }
+
+    private static void writeReadyFile(Map<String, Long> stats) throws IOException {
+        String path = System.getProperty(READY_FILE_PROPERTY);
+        if (null == path) return;
+        // write to temp file and rename, so readers never see partial file
+        File file = new File(path);
+        File tmp = new File(path + ".tmp");
+        OutputStream out = new FileOutputStream(tmp);
+        try {
+            for (Map.Entry<String, Long> en : stats.entrySet()) {
+                out.write((en.getKey() + "=" + en.getValue() + "\n").getBytes("UTF-8"));
+            }
+        } finally {
+            out.close();
+        }
+        if (!tmp.renameTo(file)) {
+            file.delete();
+            if (!tmp.renameTo(file)) throw new IOException("Cannot create ready file: [" + file.getAbsolutePath() + "]");
+        }
+    }
+
+    private static void deleteReadyFile() {
+        String path = System.getProperty(READY_FILE_PROPERTY);
+        if (null != path) new File(path).delete();
+    }
+
     private static void awaitOnLatch() {
         try {
             LATCH.await();
@@ -77,4 +168,17 @@ public class StandardLauncher {
             stop();
         }
     }
+
+    private static class ShutdownHook implements Runnable {
+        private final LauncherGroup group;
+
+        private ShutdownHook(LauncherGroup group) {
+            this.group = group;
+        }
+
+        public void run() {
+            // no-op if already stopped with 'stop' command
+            shutdown(group);
+        }
+    }
 }
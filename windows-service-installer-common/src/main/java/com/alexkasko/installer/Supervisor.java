@@ -0,0 +1,264 @@
+package com.alexkasko.installer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs daemon JVM as a child process and restarts it if it exits unexpectedly. Restarts are delayed
+ * with exponential backoff starting from 'installer.supervisor.minBackoffMillis' (1 second by default)
+ * up to 'installer.supervisor.maxBackoffMillis' (1 minute by default), backoff is reset after child
+ * runs longer than 'installer.supervisor.stableMillis' (1 minute by default). Child exited with zero
+ * code is not restarted.
+ *
+ * On TERM signal child is sent TERM and is killed if it does not exit within
+ * 'installer.supervisor.stopTimeoutMillis' (40 seconds by default). Restarts count and latencies are written
+ * to 'installer.supervisor.statsFile', latency is measured until child creates its ready file
+ * if 'installer.launcher.readyFile' is set for supervisor.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class Supervisor {
+    static final String MIN_BACKOFF_PROPERTY = "installer.supervisor.minBackoffMillis";
+    static final String MAX_BACKOFF_PROPERTY = "installer.supervisor.maxBackoffMillis";
+    static final String STABLE_PROPERTY = "installer.supervisor.stableMillis";
+    static final String STOP_TIMEOUT_PROPERTY = "installer.supervisor.stopTimeoutMillis";
+    static final String STATS_FILE_PROPERTY = "installer.supervisor.statsFile";
+    private static final long READY_POLL_MILLIS = 100;
+
+    private final List<String> command;
+    private final long minBackoff;
+    private final long maxBackoff;
+    private final long stable;
+    private final long stopTimeout;
+    private final File readyFile;
+    private final File statsFile;
+    private final Map<String, Long> stats = new LinkedHashMap<String, Long>();
+    private volatile boolean stopping = false;
+    private volatile Process child;
+
+    private Supervisor(List<String> command) {
+        this.command = command;
+        this.minBackoff = LauncherGroup.longProperty(MIN_BACKOFF_PROPERTY, 1000);
+        this.maxBackoff = LauncherGroup.longProperty(MAX_BACKOFF_PROPERTY, 60000);
+        this.stable = LauncherGroup.longProperty(STABLE_PROPERTY, 60000);
+        this.stopTimeout = LauncherGroup.longProperty(STOP_TIMEOUT_PROPERTY, 40000);
+        this.readyFile = fileProperty(StandardLauncher.READY_FILE_PROPERTY);
+        this.statsFile = fileProperty(STATS_FILE_PROPERTY);
+        stats.put("restarts", 0L);
+    }
+
+    /**
+     * Supervisor entry point
+     *
+     * @param args child process command, e.g. 'java -jar bin/classpath.jar'
+     * @throws Exception on child process start error
+     */
+    public static void main(String[] args) throws Exception {
+        if (0 == args.length) throw new IllegalArgumentException("Child process command must be provided");
+        final Supervisor supervisor = new Supervisor(Arrays.asList(args));
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            public void run() {
+                supervisor.stop();
+            }
+        }, "supervisor-shutdown-hook"));
+        int code = supervisor.supervise();
+        System.out.println("Supervisor exiting, child exit code: [" + code + "]");
+    }
+
+    private int supervise() throws Exception {
+        long backoff = minBackoff;
+        long diedAt = -1;
+        while (true) {
+            long started = System.currentTimeMillis();
+            if (null != readyFile) readyFile.delete();
+            Process process = spawn();
+            awaitReady(process, started, diedAt);
+            int code = process.waitFor();
+            long ranFor = System.currentTimeMillis() - started;
+            diedAt = System.currentTimeMillis();
+            record("lastExitCode", code);
+            record("lastRunMillis", ranFor);
+            if (stopping || 0 == code) return code;
+            backoff = ranFor >= stable ? minBackoff : backoff;
+            System.out.println("Child exited with code: [" + code + "] after: [" + ranFor + "] ms, " +
+                    "restarting in: [" + backoff + "] ms");
+            if (sleepUnlessStopping(backoff)) return code;
+            backoff = Math.min(backoff * 2, maxBackoff);
+            synchronized (stats) {
+                stats.put("restarts", stats.get("restarts") + 1);
+            }
+        }
+    }
+
+    private synchronized Process spawn() throws IOException {
+        if (stopping) throw new IllegalStateException("Supervisor is stopping");
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        child = pb.start();
+        // child output goes to supervisor output redirected by start script
+        Thread pump = new Thread(new Pump(child.getInputStream(), System.out), "supervisor-output");
+        pump.setDaemon(true);
+        pump.start();
+        System.out.println("Child started, pid: [" + pid(child) + "]");
+        return child;
+    }
+
+    // readiness is polled on a separate thread to not delay exit detection
+    private void awaitReady(final Process process, final long started, final long diedAt) {
+        Thread th = new Thread(new Runnable() {
+            public void run() {
+                if (null != readyFile) {
+                    while (!readyFile.exists()) {
+                        if (exited(process) || stopping) return;
+                        try {
+                            Thread.sleep(READY_POLL_MILLIS);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                }
+                long now = System.currentTimeMillis();
+                record("lastStartupMillis", now - started);
+                if (diedAt > 0) record("lastRestartLatencyMillis", now - diedAt);
+            }
+        }, "supervisor-ready");
+        th.setDaemon(true);
+        th.start();
+    }
+
+    private void stop() {
+        Process process;
+        synchronized (this) {
+            stopping = true;
+            process = child;
+        }
+        if (null == process || exited(process)) return;
+        System.out.println("Stopping child, pid: [" + pid(process) + "]");
+        // TERM signal on Unix
+        process.destroy();
+        long deadline = System.currentTimeMillis() + stopTimeout;
+        while (!exited(process) && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(READY_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        if (exited(process)) return;
+        System.out.println("Child did not exit in: [" + stopTimeout + "] ms, killing it");
+        kill(process);
+    }
+
+    private boolean sleepUnlessStopping(long millis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        while (System.currentTimeMillis() < deadline) {
+            if (stopping) return true;
+            Thread.sleep(Math.min(READY_POLL_MILLIS, Math.max(deadline - System.currentTimeMillis(), 1)));
+        }
+        return stopping;
+    }
+
+    private void record(String name, long value) {
+        synchronized (stats) {
+            stats.put(name, value);
+            if (null == statsFile) return;
+            // written to temp file and renamed, so readers never see partial file
+            try {
+                File tmp = new File(statsFile.getPath() + ".tmp");
+                OutputStream out = new FileOutputStream(tmp);
+                try {
+                    for (Map.Entry<String, Long> en : stats.entrySet()) {
+                        out.write((en.getKey() + "=" + en.getValue() + "\n").getBytes("UTF-8"));
+                    }
+                } finally {
+                    out.close();
+                }
+                if (!tmp.renameTo(statsFile)) {
+                    statsFile.delete();
+                    tmp.renameTo(statsFile);
+                }
+            } catch (IOException e) {
+                System.err.println("Cannot write supervisor stats: [" + statsFile.getAbsolutePath() + "]: " + e);
+            }
+        }
+    }
+
+    private static boolean exited(Process process) {
+        try {
+            process.exitValue();
+            return true;
+        } catch (IllegalThreadStateException e) {
+            return false;
+        }
+    }
+
+    // Java 6 cannot kill process forcibly, so KILL signal is sent with 'kill' utility
+    private static void kill(Process process) {
+        long pid = pid(process);
+        if (pid <= 0) {
+            System.err.println("Cannot determine child pid to kill it");
+            return;
+        }
+        try {
+            new ProcessBuilder(Arrays.asList("kill", "-KILL", Long.toString(pid))).start().waitFor();
+        } catch (Exception e) {
+            System.err.println("Cannot kill child, pid: [" + pid + "]: " + e);
+        }
+    }
+
+    // Process.pid() on Java 9 and later, private UNIXProcess field on earlier versions
+    private static long pid(Process process) {
+        try {
+            Method method = Process.class.getMethod("pid");
+            return ((Number) method.invoke(process)).longValue();
+        } catch (Exception e) {
+            // fall through
+        }
+        try {
+            Field field = process.getClass().getDeclaredField("pid");
+            field.setAccessible(true);
+            return ((Number) field.get(process)).longValue();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static File fileProperty(String name) {
+        String path = System.getProperty(name);
+        return null != path && path.trim().length() > 0 ? new File(path.trim()) : null;
+    }
+
+    private static class Pump implements Runnable {
+        private final InputStream in;
+        private final PrintStream out;
+
+        private Pump(InputStream in, PrintStream out) {
+            this.in = in;
+            this.out = out;
+        }
+
+        public void run() {
+            byte[] buf = new byte[8192];
+            try {
+                int read;
+                while (-1 != (read = in.read(buf))) {
+                    out.write(buf, 0, read);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // child exited
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.alexkasko.installer;
+
+/**
+ * Runs client launcher for a fixed time and exits, used at build time to record classes
+ * loaded on startup for class data sharing archive
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+public class TrainingLauncher {
+
+    /**
+     * Training run entry point
+     *
+     * @param args there must be exactly 2 parameters, 1st - 'launcherClassName', second - run time in milliseconds
+     * @throws InterruptedException if interrupted while application is running
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (2 != args.length) throw new IllegalArgumentException("Arguments 'launcherClassName' and 'runMillis' must be provided");
+        System.out.println("Running training with main class: " + args[0]);
+        StandardLauncher.start(args[0]);
+        Thread.sleep(Long.parseLong(args[1]));
+        StandardLauncher.stop();
+        System.out.println("Training finished");
+        // application may leave non-daemon threads
+        System.exit(0);
+    }
+}
@@ -0,0 +1,143 @@
+package com.alexkasko.installer;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Runs {@link DaemonWarmUp} routine configured with 'installer.launcher.warmUpClass' system property
+ * for 'installer.launcher.warmUpMillis' milliseconds (30 seconds by default) or 'installer.launcher.warmUpIterations'
+ * iterations, whichever ends first, '0' disables corresponding limit. Lines of 'installer.launcher.warmUpRequests'
+ * file are passed to routine in a loop if this property is set. Warm-up time and JIT activity
+ * during warm-up are returned as stats.
+ *
+ * @author alexkasko
+ * Date: 10/18/26
+ */
+class WarmUpPhase {
+    static final String CLASS_PROPERTY = "installer.launcher.warmUpClass";
+    static final String MILLIS_PROPERTY = "installer.launcher.warmUpMillis";
+    static final String ITERATIONS_PROPERTY = "installer.launcher.warmUpIterations";
+    static final String REQUESTS_PROPERTY = "installer.launcher.warmUpRequests";
+    static final long DEFAULT_MILLIS = 30000;
+
+    private WarmUpPhase() {
+    }
+
+    /**
+     * Runs warm-up if it is configured
+     *
+     * @param group started launchers
+     * @return warm-up stats, empty if warm-up is not configured
+     * @throws Exception on warm-up routine instantiation or requests file read error
+     */
+    static Map<String, Long> runIfConfigured(LauncherGroup group) throws Exception {
+        Map<String, Long> stats = new LinkedHashMap<String, Long>();
+        String className = System.getProperty(CLASS_PROPERTY);
+        if(null == className || 0 == className.trim().length()) return stats;
+        DaemonWarmUp routine = routine(group, className.trim());
+        long millis = LauncherGroup.longProperty(MILLIS_PROPERTY, DEFAULT_MILLIS);
+        long iterations = LauncherGroup.longProperty(ITERATIONS_PROPERTY, 0);
+        if(millis <= 0 && iterations <= 0) throw new IllegalArgumentException(
+                "Warm-up must be limited with either: [" + MILLIS_PROPERTY + "] or: [" + ITERATIONS_PROPERTY + "]");
+        List<String> requests = readRequests(System.getProperty(REQUESTS_PROPERTY));
+        System.out.println("Running warm-up with class: [" + className + "], requests: [" + requests.size() + "]");
+        CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+        boolean jitTimed = null != jit && jit.isCompilationTimeMonitoringSupported();
+        long jitMillisBefore = jitTimed ? jit.getTotalCompilationTime() : 0;
+        long compilesBefore = hotspotCompiles();
+        long start = System.currentTimeMillis();
+        long deadline = millis > 0 ? start + millis : Long.MAX_VALUE;
+        long done = 0;
+        long failed = 0;
+        while((iterations <= 0 || done < iterations) && System.currentTimeMillis() < deadline) {
+            String request = requests.isEmpty() ? null : requests.get((int) (done % requests.size()));
+            try {
+                routine.warmUp(request);
+                done += 1;
+            } catch (Exception e) {
+                // service is usable without warm-up, so error does not fail startup
+                System.err.println("Warm-up iteration failed, finishing warm-up");
+                e.printStackTrace();
+                failed = 1;
+                break;
+            }
+        }
+        stats.put("warmUpMillis", System.currentTimeMillis() - start);
+        stats.put("warmUpIterations", done);
+        stats.put("warmUpFailed", failed);
+        if(jitTimed) stats.put("warmUpJitMillis", jit.getTotalCompilationTime() - jitMillisBefore);
+        long compilesAfter = hotspotCompiles();
+        if(compilesBefore >= 0 && compilesAfter >= 0) stats.put("warmUpJitCompiles", compilesAfter - compilesBefore);
+        System.out.println("Warm-up finished, stats: " + stats);
+        return stats;
+    }
+
+    private static DaemonWarmUp routine(LauncherGroup group, String className) throws Exception {
+        DaemonLauncher launcher = group.launcher(className);
+        if(launcher instanceof DaemonWarmUp) return (DaemonWarmUp) launcher;
+        return (DaemonWarmUp) Class.forName(className).newInstance();
+    }
+
+    private static List<String> readRequests(String path) throws IOException {
+        List<String> res = new ArrayList<String>();
+        if(null == path || 0 == path.trim().length()) return res;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(path.trim()), "UTF-8"));
+        try {
+            String line;
+            while(null != (line = reader.readLine())) {
+                if(line.trim().length() > 0) res.add(line);
+            }
+        } finally {
+            reader.close();
+        }
+        return res;
+    }
+
+    // compilations count is not a part of standard management API, it is available
+    // from HotSpot internal MBean on Java 8 and earlier, on later versions it is
+    // the highest compilation id in code cache list, -1 is returned if not accessible
+    private static long hotspotCompiles() {
+        try {
+            Class<?> helper = Class.forName("sun.management.ManagementFactoryHelper");
+            Object bean = helper.getMethod("getHotspotCompilationMBean").invoke(null);
+            Method count = Class.forName("sun.management.HotspotCompilationMBean").getMethod("getTotalCompileCount");
+            return ((Number) count.invoke(bean)).longValue();
+        } catch (Throwable e) {
+            return codelistCompiles();
+        }
+    }
+
+    // ids are assigned to compilations sequentially, lines look like
+    // '25 0 0 java.lang.String.hashCode()I [0x..., 0x... - 0x...]'
+    private static long codelistCompiles() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            String list = (String) server.invoke(new ObjectName("com.sun.management:type=DiagnosticCommand"),
+                    "compilerCodelist", new Object[]{new String[0]}, new String[]{String[].class.getName()});
+            long res = -1;
+            for(String line : list.split("\n")) {
+                int space = line.indexOf(' ');
+                if(space <= 0) continue;
+                try {
+                    res = Math.max(res, Long.parseLong(line.substring(0, space)));
+                } catch (NumberFormatException e) {
+                    // not a method line
+                }
+            }
+            return res;
+        } catch (Throwable e) {
+            return -1;
+        }
+    }
+}
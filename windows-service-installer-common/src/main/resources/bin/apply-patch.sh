@@ -0,0 +1,12 @@
+#!/bin/bash
+# applies patch package built by 'patch' goal, application must be stopped
+set -e
+if [ "x$1" = "x" ] ; then
+    echo "Usage: apply-patch.sh patch.zip" 1>&2
+    exit 2
+fi
+DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )" && pwd )"
+PATCH="$( cd "$( dirname "$1" )" && pwd )/$( basename "$1" )"
+JAVA="$( "$DIR"/java-daemon/find-java.sh )"
+# patch contains its applier classes
+"$JAVA" -cp "$PATCH" com.alexkasko.installer.PatchApplier "$PATCH" "$( dirname "$DIR" )"
@@ -6,6 +6,7 @@ BIN_DIR="$( dirname "$DAEMON_DIR" )"
 APP_DIR="$( dirname "$BIN_DIR" )"
 # get paths
 PID_FILE="$APP_DIR"/.pid
+READY_FILE="$APP_DIR"/.ready
 OUT_FILE="$APP_DIR"/logs/std.out
 # get java
 JAVA="$( "$DAEMON_DIR"/find-java.sh )"
@@ -14,8 +15,18 @@ if [ -f "$PID_FILE" ] ; then
     echo "Pid file exists, path: "$PID_FILE", pid: $( cat "$PID_FILE" )"
     exit 1
 fi
+# ready file is created by launcher when application is ready to serve
+rm -f "$READY_FILE"
 # startup
-nohup "$JAVA" $JVM_ARGS -jar "$BIN_DIR"/"$@" > "$OUT_FILE" 2>&1 &
+if [ "$SUPERVISE" = "true" ] ; then
+    # small supervisor JVM restarts daemon JVM on crash, pid file points to supervisor
+    SUPERVISOR=( "$JAVA" -Xmx16m -XX:+UseSerialGC -cp "$BIN_DIR"/"$1" -Dinstaller.launcher.readyFile="$READY_FILE"
+        -Dinstaller.supervisor.statsFile="$APP_DIR"/logs/supervisor.stats $SUPERVISOR_ARGS com.alexkasko.installer.Supervisor )
+else
+    SUPERVISOR=()
+fi
+# JVM_ARGS go after profile options to override them
+nohup "${SUPERVISOR[@]}" "$JAVA" $JVM_PROFILE_ARGS $JVM_ARGS -Dinstaller.launcher.readyFile="$READY_FILE" -jar "$BIN_DIR"/"$@" > "$OUT_FILE" 2>&1 &
 PID="$!"
 echo "$PID" > "$PID_FILE"
 echo "Started, pid: $PID"
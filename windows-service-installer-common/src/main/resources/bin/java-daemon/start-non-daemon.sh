@@ -6,4 +6,4 @@ BIN_DIR="$( dirname "$DAEMON_DIR" )"
 # get java
 JAVA="$( "$DAEMON_DIR"/find-java.sh )"
 # run
-"$JAVA" $JVM_ARGS -jar "$BIN_DIR"/"$@"
\ No newline at end of file
+"$JAVA" $JVM_PROFILE_ARGS $JVM_ARGS -jar "$BIN_DIR"/"$@"
\ No newline at end of file
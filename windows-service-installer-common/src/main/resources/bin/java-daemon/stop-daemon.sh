@@ -6,6 +6,7 @@ BIN_DIR="$( dirname "$DAEMON_DIR" )"
 APP_DIR="$( dirname "$BIN_DIR" )"
 # pid file path
 PID_FILE="$APP_DIR"/.pid
+READY_FILE="$APP_DIR"/.ready
 # get java
 JAVA="$( "$DAEMON_DIR"/find-java.sh )"
 # check pid file
@@ -16,5 +17,18 @@ fi
 # shutdown
 PID="$( cat "$PID_FILE" )"
 kill "$PID"
+echo "TERM signal sent, pid: $PID"
+# daemon shutdown is bounded by launcher stop timeout, wait a bit longer than it
+STOP_WAIT_SECONDS="${STOP_WAIT_SECONDS:-60}"
+WAITED=0
+while kill -0 "$PID" 2> /dev/null ; do
+    if [ "$WAITED" -ge "$STOP_WAIT_SECONDS" ] ; then
+        echo "Process is still running after $STOP_WAIT_SECONDS seconds, pid: $PID"
+        exit 1
+    fi
+    sleep 1
+    WAITED=$(( WAITED + 1 ))
+done
 rm "$PID_FILE"
-echo "TERM signal sent, pid: $PID"
\ No newline at end of file
+rm -f "$READY_FILE"
+echo "Stopped, pid: $PID"
\ No newline at end of file
@@ -2,4 +2,54 @@
 #!/bin/bash
 set -e
 DIR="$( cd "$( dirname "${r"${BASH_SOURCE[0]}"}" )" && pwd )"
-"$DIR"/java-daemon/start-daemon.sh ${prunsrvLauncherJarFile} $@
\ No newline at end of file
+[#if jvmProfileArgs??]
+# '${jvmProfile}' profile, heap is sized by JVM on start from available memory
+export JVM_PROFILE_ARGS="${jvmProfileArgs}"
+[/#if]
+# daemon shutdown is bounded on TERM signal sent by shutdown.sh
+export JVM_ARGS="-Dinstaller.launcher.stopTimeoutMillis=${launcherStopTimeoutMillis?c} $JVM_ARGS"
+export JVM_ARGS="-Dinstaller.launcher.readyTimeoutMillis=${launcherReadyTimeoutMillis?c} $JVM_ARGS"
+[#if launcherWarmUpClass??]
+export JVM_ARGS="-Dinstaller.launcher.warmUpClass=${launcherWarmUpClass} -Dinstaller.launcher.warmUpMillis=${launcherWarmUpMillis?c} -Dinstaller.launcher.warmUpIterations=${launcherWarmUpIterations?c} $JVM_ARGS"
+[/#if]
+[#if launcherWarmUpClass?? && launcherWarmUpRequestsFile??]
+# requests file path must not contain spaces, JVM_ARGS are split on them
+export JVM_ARGS="-Dinstaller.launcher.warmUpRequests=$DIR/../${launcherWarmUpRequestsFile} $JVM_ARGS"
+[/#if]
+[#if metricsPort > 0]
+export JVM_ARGS="-Dinstaller.metrics.port=${metricsPort?c} $JVM_ARGS"
+[/#if]
+[#if metricsSnapshotIntervalMillis > 0]
+# daemon stdout is written to logs directory, snapshots are written next to it
+export JVM_ARGS="-Dinstaller.metrics.file=$DIR/../logs/${metricsFile} -Dinstaller.metrics.intervalMillis=${metricsSnapshotIntervalMillis?c} $JVM_ARGS"
+[/#if]
+[#if outputFile??]
+export JVM_ARGS="-Dinstaller.output.file=$DIR/../logs/${outputFile} -Dinstaller.output.maxFileBytes=${outputMaxFileBytes?c} -Dinstaller.output.rotateMillis=${outputRotateMillis?c} -Dinstaller.output.maxFiles=${outputMaxFiles?c} -Dinstaller.output.bufferBytes=${outputBufferBytes?c} -Dinstaller.output.overflow=${outputOverflow} $JVM_ARGS"
+[/#if]
+[#if launcherDrainTimeoutMillis??]
+export JVM_ARGS="-Dinstaller.launcher.drainTimeoutMillis=${launcherDrainTimeoutMillis?c} $JVM_ARGS"
+[/#if]
+[#if unixSupervisor]
+export SUPERVISE=true
+[#if launcherStopTimeoutMillis > 0]
+export SUPERVISOR_ARGS="-Dinstaller.supervisor.stopTimeoutMillis=${(launcherStopTimeoutMillis + 10000)?c} $SUPERVISOR_ARGS"
+[/#if]
+[/#if]
+[#if cdsArchive]
+# archive is bound to classpath paths and jar times, it's dumped on first start and after jars are changed
+CDS_ARCHIVE="$DIR/${cdsArchiveFile}"
+[#if sharedStore]
+CDS_JARS="$DIR/../../${sharedStoreName}/lib"
+[#else]
+CDS_JARS="$DIR/../lib"
+[/#if]
+if [ ! -f "$CDS_ARCHIVE" ] || [ -n "$( find "$DIR" "$CDS_JARS" -name '*.jar' -newer "$CDS_ARCHIVE" 2> /dev/null )" ] ; then
+    rm -f "$CDS_ARCHIVE"
+    "$( "$DIR"/java-daemon/find-java.sh )" -Xshare:dump -XX:SharedClassListFile="$DIR/${cdsClassListFile}" \
+        -XX:SharedArchiveFile="$CDS_ARCHIVE" -cp "$DIR/${classpathJarFile}" > "$DIR/../logs/cds-dump.log" 2>&1 ||
+        echo "CDS archive was not created, see logs/cds-dump.log"
+fi
+# JVM ignores archive if it does not match runtime or classpath
+export JVM_ARGS="-XX:+IgnoreUnrecognizedVMOptions -Xshare:auto -XX:SharedArchiveFile=$CDS_ARCHIVE $JVM_ARGS"
+[/#if]
+"$DIR"/java-daemon/start-daemon.sh ${classpathJarFile} $@
\ No newline at end of file
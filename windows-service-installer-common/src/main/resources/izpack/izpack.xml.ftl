@@ -50,10 +50,22 @@
             <description>${izpackAppFilesPackDescription}</description>
             <fileset dir="dist" targetdir="$INSTALL_PATH"/>
         </pack>
+[#if sharedStore]
+        <!-- shared files may be used by other services and are kept on uninstall -->
+        <pack name="${izpackSharedStorePackName}" required="yes" installGroups="appfiles_pack" uninstall="false">
+            <description>${izpackSharedStorePackDescription}</description>
+            <fileset dir="${sharedStoreName}" targetdir="$INSTALL_PATH/../${sharedStoreName}"/>
+        </pack>
+        <pack name="${izpackJREPackName}" required="yes" installGroups="jre_pack" loose="true" uninstall="false">
+            <description>${izpackJREPackDescription}</description>
+            <fileset dir="jre" targetdir="$INSTALL_PATH/../${sharedStoreName}/jre/${sharedJreKey}"/>
+        </pack>
+[#else]
         <pack name="${izpackJREPackName}" required="yes" installGroups="jre_pack" loose="true">
             <description>${izpackJREPackDescription}</description>
             <fileset dir="jre" targetdir="$INSTALL_PATH/jre"/>
         </pack>
+[/#if]
         ${izpackAdditionalPacks}
         <pack name="${izpackWindowsServicePackName}" required="no" preselected="yes" installGroups="windows_service_pack">
             <os family="windows"/>
@@ -68,4 +80,10 @@
             </executable>
         </pack>
     </packs>
+[#if streamIzpackOutput]
+    <packaging>
+        <packager class="com.alexkasko.installer.StreamingPackager"/>
+        <unpacker class="com.izforge.izpack.installer.Unpacker"/>
+    </packaging>
+[/#if]
 </installation>
\ No newline at end of file
@@ -0,0 +1,30 @@
+[#ftl encoding="UTF-8"/]
+@echo off
+rem applies patch package built by 'patch' goal, service must be stopped
+if "%OS%" == "Windows_NT" setlocal
+if "%~1" == "" (
+    echo Usage: apply_patch.bat patch.zip
+    exit /b 2
+)
+set CURRENT_DIR=%cd%
+cd /d %~dp0
+cd ..
+set APP_HOME=%cd%
+cd %CURRENT_DIR%
+rem patch contains its applier classes
+[#if sharedStore]
+"%APP_HOME%\..\${sharedStoreName}\jre\${sharedJreKey}\bin\java.exe" -cp "%~f1" com.alexkasko.installer.PatchApplier "%~f1" "%APP_HOME%"
+[#else]
+"%APP_HOME%\jre\bin\java.exe" -cp "%~f1" com.alexkasko.installer.PatchApplier "%~f1" "%APP_HOME%"
+[/#if]
+[#if cdsArchive]
+if errorlevel 1 exit /b 1
+rem class data sharing archive is bound to jar times, so it's dumped again for patched jars
+set APP_CLASSPATH=%APP_HOME%\bin\${classpathJarFile}
+if exist "%APP_HOME%\bin\${cdsArchiveFile}" del /f "%APP_HOME%\bin\${cdsArchiveFile}"
+[#if sharedStore]
+"%APP_HOME%\..\${sharedStoreName}\jre\${sharedJreKey}\bin\java.exe" -Xshare:dump -XX:SharedClassListFile="%APP_HOME%\bin\${cdsClassListFile}" -XX:SharedArchiveFile="%APP_HOME%\bin\${cdsArchiveFile}" -cp "%APP_CLASSPATH%" > "%APP_HOME%\${prunsrvLogPath}\cds-dump.log" 2>&1 || echo CDS archive was not created, see ${prunsrvLogPath}\cds-dump.log
+[#else]
+"%APP_HOME%\jre\bin\java.exe" -Xshare:dump -XX:SharedClassListFile="%APP_HOME%\bin\${cdsClassListFile}" -XX:SharedArchiveFile="%APP_HOME%\bin\${cdsArchiveFile}" -cp "%APP_CLASSPATH%" > "%APP_HOME%\${prunsrvLogPath}\cds-dump.log" 2>&1 || echo CDS archive was not created, see ${prunsrvLogPath}\cds-dump.log
+[/#if]
+[/#if]
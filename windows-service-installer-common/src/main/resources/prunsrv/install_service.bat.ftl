@@ -6,11 +6,17 @@ set CURRENT_DIR=%cd%
 cd /d %~dp0
 cd ..
 set APP_HOME=%cd%
-rem try to remove me
-set APP_CLASSPATH=%APP_HOME%\bin\${prunsrvLauncherJarFile}
-cd /d "%APP_HOME%\lib"
-for %%i in ("*.jar") do call "%APP_HOME%\bin\appendcp.bat" "%APP_HOME%\lib\%%i"
-cd /d %APP_HOME%
+rem manifest of classpath jar lists launcher jar and all jars from lib or shared store
+set APP_CLASSPATH=%APP_HOME%\bin\${classpathJarFile}
+[#if cdsArchive]
+rem class data sharing archive is bound to classpath paths and jar times, so it's dumped on this host
+if exist "%APP_HOME%\bin\${cdsArchiveFile}" del /f "%APP_HOME%\bin\${cdsArchiveFile}"
+[#if sharedStore]
+"%APP_HOME%\..\${sharedStoreName}\jre\${sharedJreKey}\bin\java.exe" -Xshare:dump -XX:SharedClassListFile="%APP_HOME%\bin\${cdsClassListFile}" -XX:SharedArchiveFile="%APP_HOME%\bin\${cdsArchiveFile}" -cp "%APP_CLASSPATH%" > "%APP_HOME%\${prunsrvLogPath}\cds-dump.log" 2>&1 || echo CDS archive was not created, see ${prunsrvLogPath}\cds-dump.log
+[#else]
+"%APP_HOME%\jre\bin\java.exe" -Xshare:dump -XX:SharedClassListFile="%APP_HOME%\bin\${cdsClassListFile}" -XX:SharedArchiveFile="%APP_HOME%\bin\${cdsArchiveFile}" -cp "%APP_CLASSPATH%" > "%APP_HOME%\${prunsrvLogPath}\cds-dump.log" 2>&1 || echo CDS archive was not created, see ${prunsrvLogPath}\cds-dump.log
+[/#if]
+[/#if]
 
 "%APP_HOME%\bin\prunsrv.exe" //IS//${prunsrvServiceName} ^
 --Startup ${prunsrvStartupMode} ^
@@ -23,13 +29,48 @@ cd /d %APP_HOME%
 --StopMode jvm ^
 --StdOutput "%APP_HOME%\${prunsrvStdOutput}" ^
 --StdError "%APP_HOME%\${prunsrvStdError}" ^
+[#-- heap is sized by JVM on start from available memory, options below override profile ones --]
+[#if jvmProfileOptions??]
+++JvmOptions ${jvmProfileOptions} ^
+[/#if]
 ++JvmOptions -Djava.io.tmpdir="%APP_HOME%\temp";${prunsrvJvmOptions} ^
+++JvmOptions -Dinstaller.launcher.stopTimeoutMillis=${launcherStopTimeoutMillis?c} ^
+++JvmOptions -Dinstaller.launcher.readyTimeoutMillis=${launcherReadyTimeoutMillis?c};-Dinstaller.launcher.readyFile="%APP_HOME%\.ready" ^
+[#if launcherWarmUpClass??]
+++JvmOptions -Dinstaller.launcher.warmUpClass=${launcherWarmUpClass};-Dinstaller.launcher.warmUpMillis=${launcherWarmUpMillis?c};-Dinstaller.launcher.warmUpIterations=${launcherWarmUpIterations?c} ^
+[/#if]
+[#if launcherWarmUpClass?? && launcherWarmUpRequestsFile??]
+++JvmOptions -Dinstaller.launcher.warmUpRequests="%APP_HOME%\${launcherWarmUpRequestsFile}" ^
+[/#if]
+[#if metricsPort > 0]
+++JvmOptions -Dinstaller.metrics.port=${metricsPort?c} ^
+[/#if]
+[#if metricsSnapshotIntervalMillis > 0]
+++JvmOptions -Dinstaller.metrics.file="%APP_HOME%\${prunsrvLogPath}\${metricsFile}";-Dinstaller.metrics.intervalMillis=${metricsSnapshotIntervalMillis?c} ^
+[/#if]
+[#if outputFile??]
+++JvmOptions -Dinstaller.output.file="%APP_HOME%\${prunsrvLogPath}\${outputFile}";-Dinstaller.output.maxFileBytes=${outputMaxFileBytes?c};-Dinstaller.output.rotateMillis=${outputRotateMillis?c};-Dinstaller.output.maxFiles=${outputMaxFiles?c};-Dinstaller.output.bufferBytes=${outputBufferBytes?c};-Dinstaller.output.overflow=${outputOverflow} ^
+[/#if]
+[#if launcherDrainTimeoutMillis??]
+++JvmOptions -Dinstaller.launcher.drainTimeoutMillis=${launcherDrainTimeoutMillis?c} ^
+[/#if]
+[#if cdsArchive]
+++JvmOptions -XX:+IgnoreUnrecognizedVMOptions;-Xshare:auto;-XX:SharedArchiveFile="%APP_HOME%\bin\${cdsArchiveFile}" ^
+[/#if]
+[#if jvmProfileOptions??]
+--JvmSs ${jvmProfileStackKb?c} ^
+[#else]
 --JvmMs ${prunsrvJvmMs} ^
 --JvmMx ${prunsrvJvmMx} ^
 --JvmSs ${prunsrvJvmSs} ^
+[/#if]
 --DisplayName "${prunsrvDisplayName}" ^
 --Description "${prunsrvDescription}" ^
+[#if sharedStore]
+--Jvm "%APP_HOME%\..\${sharedStoreName}\jre\${sharedJreKey}\bin\server\jvm.dll" ^
+[#else]
 --Jvm "%APP_HOME%\jre\bin\server\jvm.dll" ^
+[/#if]
 --Classpath "%APP_CLASSPATH%" ^
 --StopTimeout ${prunsrvStopTimeout} ^
 --LogPath "%APP_HOME%\${prunsrvLogPath}" ^